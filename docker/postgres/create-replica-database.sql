@@ -0,0 +1,3 @@
+-- A second database standing in for a read replica in local runs and tests (recipebook.datasource.replica.*).
+-- It is not replicated: tests write to it directly to tell which database a read went to.
+CREATE DATABASE "recipe-book-replica";
@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Runs the same load test against the application on the platform-thread pool and on virtual threads.
+# Each run starts from an empty database, so both see the same seeded recipes.
+# Usage: scripts/compare-thread-modes.sh [clients] [duration-seconds]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CLIENTS="${1:-400}"
+DURATION="${2:-60}"
+PORT=8080
+RESULTS="$(mktemp)"
+
+java_major() {
+  java -XshowSettings:properties -version 2>&1 | awk -F' = ' '/java.specification.version/ {print $2}'
+}
+
+wait_for_app() {
+  for _ in $(seq 1 120); do
+    if curl -sf "http://localhost:${PORT}/api/v1/recipes?limit=1" > /dev/null; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "Application did not start" >&2
+  return 1
+}
+
+run_mode() {
+  local label="$1" profiles="$2"
+  docker compose down -v > /dev/null 2>&1 || true
+  docker compose up -d postgres
+  sleep 5
+  java -jar target/recipe-book-*.jar --spring.profiles.active="${profiles}" > "target/${label}.log" 2>&1 &
+  local app=$!
+  trap 'kill ${app} 2> /dev/null || true' EXIT
+  wait_for_app
+  sh ./mvnw -B -q -Ploadtest -DskipTests verify \
+    -Dloadtest.base-url="http://localhost:${PORT}" \
+    -Dloadtest.clients="${CLIENTS}" \
+    -Dloadtest.duration="${DURATION}" \
+    -Dloadtest.label="${label}" | grep "clients=" | tee -a "${RESULTS}"
+  kill "${app}"
+  wait "${app}" 2> /dev/null || true
+  trap - EXIT
+}
+
+sh ./mvnw -B -q -DskipTests package
+run_mode platform default
+if [ "$(java_major)" -ge 21 ]; then
+  run_mode virtual virtual-threads
+else
+  echo "Skipping the virtual-thread run: it needs a Java 21 runtime, found $(java_major)" >&2
+fi
+docker compose down -v > /dev/null 2>&1 || true
+
+echo
+echo "Comparison (${CLIENTS} clients, ${DURATION}s):"
+cat "${RESULTS}"
@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+# Starts PostgreSQL and the application locally, imports a generated catalog and runs the open-model
+# load scenarios against it. Works offline once the Maven dependencies and the postgres image are present.
+# Usage: scripts/run-loadtest.sh [-Dloadtest.<option>=<value> ...]
+#   e.g. scripts/run-loadtest.sh -Dloadtest.catalog-recipes=100000 -Dloadtest.scenarios=filter:200 -o
+# Extra application arguments can be passed in APP_ARGS, e.g. APP_ARGS=--recipebook.filter-index.enabled=true
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+PORT=8080
+mkdir -p target/loadtest
+
+wait_for_app() {
+  for _ in $(seq 1 120); do
+    if curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "Application did not start, see target/loadtest/app.log" >&2
+  return 1
+}
+
+docker compose down -v > /dev/null 2>&1 || true
+docker compose up -d postgres
+trap 'docker compose down -v > /dev/null 2>&1 || true' EXIT
+sleep 5
+
+sh ./mvnw -B -q -DskipTests "$@" package
+java -jar target/recipe-book-*.jar ${APP_ARGS:-} > target/loadtest/app.log 2>&1 &
+APP=$!
+trap 'kill ${APP} 2> /dev/null || true; docker compose down -v > /dev/null 2>&1 || true' EXIT
+wait_for_app
+
+sh ./mvnw -B -Ploadtest -DskipTests verify \
+  -Dloadtest.main=com.stefanovich.recipebook.loadtest.OpenModelLoadTest \
+  -Dloadtest.base-url="http://localhost:${PORT}" \
+  "$@"
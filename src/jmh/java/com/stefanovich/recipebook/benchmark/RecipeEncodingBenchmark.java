@@ -0,0 +1,89 @@
+package com.stefanovich.recipebook.benchmark;
+
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.stefanovich.recipebook.configuration.RecipeProtobufHttpMessageConverter;
+import com.stefanovich.recipebook.mapper.RecipeMapper;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the encodings of a list of {@link RecipeDTO}s, as returned by the recipe list endpoint, through the
+ * message converters of the application: the time to encode and decode it, and the payload size, which is
+ * printed once per encoding and list size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeEncodingBenchmark {
+    private static final Type RECIPE_LIST = new ParameterizedTypeReference<List<RecipeDTO>>() {
+    }.getType();
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    String encoding;
+
+    @Param({"10", "100", "1000"})
+    int recipeCount;
+
+    @Param({"10"})
+    int ingredientCount;
+
+    private GenericHttpMessageConverter<Object> converter;
+    private List<RecipeDTO> recipes;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        converter = converter(encoding);
+        RecipeMapper recipeMapper = new RecipeMapper();
+        recipes = new ArrayList<>(recipeCount);
+        for (int i = 0; i < recipeCount; i++) {
+            Recipe recipe = RecipeMapperBenchmark.recipe(ingredientCount);
+            recipe.setId(i + 1);
+            recipes.add(recipeMapper.toDto(recipe));
+        }
+        payload = encode();
+        System.out.printf("%n%s: %d bytes for %d recipes with %d ingredients%n",
+                encoding, payload.length, recipeCount, ingredientCount);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(recipes, RECIPE_LIST, null, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return converter.read(RECIPE_LIST, null, new MockHttpInputMessage(payload));
+    }
+
+    private static GenericHttpMessageConverter<Object> converter(String encoding) throws IOException {
+        return switch (encoding) {
+            case "json" -> new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+            case "smile" -> new MappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder.smile().build());
+            case "cbor" -> new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor().build());
+            case "protobuf" -> new RecipeProtobufHttpMessageConverter(
+                    Jackson2ObjectMapperBuilder.json().factory(new ProtobufFactory()).build());
+            default -> throw new IllegalArgumentException("Unknown encoding " + encoding);
+        };
+    }
+}
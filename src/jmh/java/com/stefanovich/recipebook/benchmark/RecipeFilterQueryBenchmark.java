@@ -0,0 +1,122 @@
+package com.stefanovich.recipebook.benchmark;
+
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.service.RecipeFilterKey;
+import com.stefanovich.recipebook.service.RecipeFilterQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.query.Query;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of the criteria query of {@code RecipeService.filterRecipes} for each filter
+ * combination, and its interpretation by Hibernate. Hibernate is bootstrapped without a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeFilterQueryBenchmark {
+
+    @Param({"none", "vegetarian", "servings", "includeAny", "includeAll", "exclude", "search", "combined"})
+    String filter;
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private CriteriaBuilder criteriaBuilder;
+    private RecipeFilterKey key;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Recipe.class)
+                .addAnnotatedClass(Ingredient.class)
+                .addAnnotatedClass(IngredientInRecipe.class)
+                .setProperty(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .setProperty("hibernate.temp.use_jdbc_metadata_defaults", "false")
+                .setProperty(AvailableSettings.CONNECTION_PROVIDER, NoConnectionProvider.class.getName())
+                .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+                .buildSessionFactory();
+        session = sessionFactory.openSession();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+        key = key(filter);
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Recipe> buildCriteriaQuery() {
+        return RecipeFilterQuery.build(criteriaBuilder, key);
+    }
+
+    @Benchmark
+    public Query<Recipe> buildAndInterpretQuery() {
+        return session.createQuery(RecipeFilterQuery.build(criteriaBuilder, key));
+    }
+
+    static RecipeFilterKey key(String filter) {
+        List<String> include = List.of("Tomato", "cheese", "basil");
+        List<String> exclude = List.of("salmon", "Potatoes");
+        return switch (filter) {
+            case "none" -> RecipeFilterKey.of(null, null, null, null, null, null);
+            case "vegetarian" -> RecipeFilterKey.of(true, null, null, null, null, null);
+            case "servings" -> RecipeFilterKey.of(null, 4, null, null, null, null);
+            case "includeAny" -> RecipeFilterKey.of(null, null, include, IngredientMatchMode.ANY, null, null);
+            case "includeAll" -> RecipeFilterKey.of(null, null, include, IngredientMatchMode.ALL, null, null);
+            case "exclude" -> RecipeFilterKey.of(null, null, null, null, exclude, null);
+            case "search" -> RecipeFilterKey.of(null, null, null, null, null, "salmon in oven");
+            case "combined" -> RecipeFilterKey.of(true, 4, include, IngredientMatchMode.ALL, exclude, "salmon in oven");
+            default -> throw new IllegalArgumentException("Unknown filter - " + filter);
+        };
+    }
+
+    /**
+     * Connection provider of a session factory that never talks to a database.
+     */
+    public static class NoConnectionProvider implements ConnectionProvider {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            throw new SQLException("The benchmark session factory has no database");
+        }
+
+        @Override
+        public void closeConnection(Connection connection) {
+        }
+
+        @Override
+        public boolean supportsAggressiveRelease() {
+            return false;
+        }
+
+        @Override
+        public boolean isUnwrappableAs(Class<?> unwrapType) {
+            return false;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> unwrapType) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
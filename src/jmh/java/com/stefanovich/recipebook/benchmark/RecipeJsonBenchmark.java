@@ -0,0 +1,65 @@
+package com.stefanovich.recipebook.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.stefanovich.recipebook.mapper.RecipeMapper;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON serialization of a list of {@link RecipeDTO}s, as returned by the recipe pages,
+ * with that of the {@link Recipe} entities returned by the filter endpoint.
+ * The object mapper is configured like the one of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int recipeCount;
+
+    @Param({"5", "20"})
+    int ingredientCount;
+
+    private ObjectWriter dtoWriter;
+    private ObjectWriter entityWriter;
+    private List<RecipeDTO> dtos;
+    private List<Recipe> entities;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        dtoWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, RecipeDTO.class));
+        entityWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Recipe.class));
+
+        RecipeMapper recipeMapper = new RecipeMapper();
+        entities = new ArrayList<>(recipeCount);
+        dtos = new ArrayList<>(recipeCount);
+        for (int i = 0; i < recipeCount; i++) {
+            Recipe recipe = RecipeMapperBenchmark.recipe(ingredientCount);
+            recipe.setId(i + 1);
+            entities.add(recipe);
+            dtos.add(recipeMapper.toDto(recipe));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeDtos() throws Exception {
+        return dtoWriter.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] serializeEntities() throws Exception {
+        return entityWriter.writeValueAsBytes(entities);
+    }
+}
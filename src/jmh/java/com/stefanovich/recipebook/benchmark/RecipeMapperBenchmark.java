@@ -0,0 +1,71 @@
+package com.stefanovich.recipebook.benchmark;
+
+import com.stefanovich.recipebook.mapper.RecipeMapper;
+import com.stefanovich.recipebook.model.Difficulty;
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call ModelMapper conversion that RecipeService used to do with {@link RecipeMapper},
+ * which {@code RecipeService.convertToDTO} delegates to, at growing ingredient counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeMapperBenchmark {
+
+    @Param({"0", "1", "10", "50", "200"})
+    int ingredientCount;
+
+    private final RecipeMapper recipeMapper = new RecipeMapper();
+    private Recipe recipe;
+
+    @Setup
+    public void setUp() {
+        recipe = recipe(ingredientCount);
+    }
+
+    @Benchmark
+    public RecipeDTO modelMapperPerCall() {
+        ModelMapper modelMapper = new ModelMapper();
+        return modelMapper.map(recipe, RecipeDTO.class);
+    }
+
+    @Benchmark
+    public RecipeDTO recipeMapper() {
+        return recipeMapper.toDto(recipe);
+    }
+
+    static Recipe recipe(int ingredientCount) {
+        Recipe recipe = new Recipe();
+        recipe.setId(1);
+        recipe.setName("Benchmark Recipe");
+        recipe.setInstructions("Mix everything and bake for 30 minutes");
+        recipe.setPreparationTime(30);
+        recipe.setServings(4);
+        recipe.setDifficulty(Difficulty.MEDIUM);
+        recipe.setVegetarian(true);
+        for (int i = 0; i < ingredientCount; i++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(i + 1);
+            ingredient.setName("ingredient-" + i);
+            IngredientInRecipe ingredientInRecipe = new IngredientInRecipe();
+            ingredientInRecipe.setId(i + 1);
+            ingredientInRecipe.setIngredient(ingredient);
+            ingredientInRecipe.setRecipe(recipe);
+            ingredientInRecipe.setQuantity(10 * i);
+            ingredientInRecipe.setUnitOfMeasure("g");
+            recipe.getIngredients().add(ingredientInRecipe);
+        }
+        return recipe;
+    }
+}
@@ -0,0 +1,158 @@
+package com.stefanovich.recipebook.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.stefanovich.recipebook.model.Difficulty;
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Deterministic generator of a recipe catalog. Recipe {@code i} only depends on the seed and on {@code i},
+ * so a catalog can be generated in any order or in parts, and two runs with the same seed produce the same recipes.
+ * Ingredients are drawn from a vocabulary of {@code ingredientCount} names with Zipf-distributed popularity.
+ * <p>
+ * Writes the catalog as newline-delimited JSON for the import endpoint:
+ * --recipes=1000000 --ingredients=50000 --seed=42 --zipf-exponent=1.0 --output=target/loadtest/catalog.ndjson
+ */
+public class CatalogGenerator {
+    private static final String[] BASE_INGREDIENTS = {"salmon", "potatoes", "leek", "garlic", "onion", "tomato", "basil",
+            "cheese", "rice", "chicken", "tofu", "carrot", "pepper", "lemon", "butter", "flour", "egg", "milk", "cream",
+            "spinach", "mushroom", "beef", "pork", "lamb", "shrimp", "cod", "tuna", "beans", "lentils", "chickpeas",
+            "pasta", "noodles", "bread", "oats", "apple", "pear", "banana", "strawberry", "blueberry", "honey", "sugar",
+            "olive oil", "vinegar", "soy sauce", "ginger", "chili", "cumin", "paprika", "thyme", "rosemary", "parsley",
+            "coriander", "mint", "zucchini", "eggplant", "cabbage", "broccoli", "cauliflower", "corn", "peas", "yogurt"};
+    private static final String[] VARIETIES = {"", "fresh ", "dried ", "smoked ", "roasted ", "organic ", "frozen ",
+            "wild ", "baby ", "red ", "green ", "yellow ", "sweet ", "spicy ", "ground ", "sliced "};
+    private static final String[] DISHES = {"soup", "salad", "stew", "bake", "curry", "stir-fry", "pie", "risotto",
+            "tart", "bowl", "casserole", "skillet", "gratin", "wrap", "pancakes", "skewers"};
+    private static final String[] STYLES = {"Classic", "Quick", "Rustic", "Spicy", "Creamy", "Grandma's", "Weeknight",
+            "Summer", "Winter", "Crispy", "Slow-cooked", "Easy"};
+    private static final String[] UNITS = {"g", "ml", "pcs", "tbsp", "tsp"};
+    private static final Difficulty[] DIFFICULTIES = {Difficulty.EASY, Difficulty.EASY, Difficulty.MEDIUM, Difficulty.MEDIUM,
+            Difficulty.MEDIUM, Difficulty.HARD};
+
+    private final long seed;
+    private final ZipfDistribution ingredientPopularity;
+
+    public CatalogGenerator(long seed, int ingredientCount, double zipfExponent) {
+        this.seed = seed;
+        this.ingredientPopularity = new ZipfDistribution(ingredientCount, zipfExponent);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = Options.parse(args);
+        long recipes = Long.parseLong(options.getOrDefault("recipes", "1000000"));
+        CatalogGenerator generator = new CatalogGenerator(
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("ingredients", "50000")),
+                Double.parseDouble(options.getOrDefault("zipf-exponent", "1.0")));
+        Path output = Path.of(options.getOrDefault("output", "target/loadtest/catalog.ndjson"));
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            generator.write(out, 0, recipes);
+        }
+        System.out.println("Wrote " + recipes + " recipes to " + output);
+    }
+
+    /**
+     * Writes recipes {@code from} (inclusive) to {@code to} (exclusive) as newline-delimited JSON.
+     */
+    public void write(OutputStream out, long from, long to) throws IOException {
+        ObjectWriter writer = new ObjectMapper().writerFor(RecipeDTO.class);
+        for (long index = from; index < to; index++) {
+            out.write(writer.writeValueAsBytes(recipe(index)));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * @return Recipes {@code from} (inclusive) to {@code to} (exclusive) as newline-delimited JSON.
+     */
+    public byte[] toNdjson(long from, long to) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(out, from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param index The position of the recipe in the catalog.
+     * @return The recipe at that position, without ids.
+     */
+    public RecipeDTO recipe(long index) {
+        SplittableRandom random = random(index);
+        int ingredientCount = 3 + random.nextInt(10);
+        Set<Integer> ranks = new LinkedHashSet<>();
+        for (int attempt = 0; ranks.size() < ingredientCount && attempt < ingredientCount * 4; attempt++) {
+            ranks.add(ingredientPopularity.sample(random));
+        }
+
+        List<IngredientInRecipeDTO> ingredients = new ArrayList<>(ranks.size());
+        List<String> names = new ArrayList<>(ranks.size());
+        for (int rank : ranks) {
+            String name = ingredientName(rank);
+            names.add(name);
+            IngredientInRecipeDTO ingredient = new IngredientInRecipeDTO();
+            ingredient.setIngredient(new IngredientDTO(null, name));
+            ingredient.setQuantity(5 * (1 + random.nextInt(100)));
+            ingredient.setUnitOfMeasure(UNITS[random.nextInt(UNITS.length)]);
+            ingredients.add(ingredient);
+        }
+
+        RecipeDTO recipe = new RecipeDTO();
+        recipe.setName(STYLES[random.nextInt(STYLES.length)] + " " + names.get(0) + " " + DISHES[random.nextInt(DISHES.length)]);
+        recipe.setInstructions(instructions(names, random));
+        // mostly short recipes, with a long tail of slow ones
+        recipe.setPreparationTime(5 + (int) Math.min(235, -Math.log(1 - random.nextDouble()) * 35));
+        recipe.setServings(1 + random.nextInt(8));
+        recipe.setDifficulty(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)].name());
+        recipe.setVegetarian(random.nextInt(10) < 3);
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+
+    /**
+     * Draws an ingredient name with the popularity of the catalog, e.g. for filter requests.
+     */
+    public String sampleIngredientName(SplittableRandom random) {
+        return ingredientName(ingredientPopularity.sample(random));
+    }
+
+    /**
+     * @param rank The popularity rank of the ingredient, 0 being the most popular.
+     * @return A distinct, readable ingredient name for every rank.
+     */
+    public static String ingredientName(int rank) {
+        int base = rank % BASE_INGREDIENTS.length;
+        int variety = rank / BASE_INGREDIENTS.length % VARIETIES.length;
+        int generation = rank / (BASE_INGREDIENTS.length * VARIETIES.length);
+        return VARIETIES[variety] + BASE_INGREDIENTS[base] + (generation == 0 ? "" : " no. " + (generation + 1));
+    }
+
+    private static String instructions(List<String> names, SplittableRandom random) {
+        StringBuilder instructions = new StringBuilder("Prepare the ").append(String.join(", ", names)).append('.');
+        instructions.append(" Cook the ").append(names.get(0)).append(" for ").append(5 + random.nextInt(40)).append(" minutes.");
+        if (names.size() > 1) {
+            instructions.append(" Add the ").append(names.get(1)).append(" and season to taste.");
+        }
+        instructions.append(" Serve warm.");
+        return instructions.toString();
+    }
+
+    private SplittableRandom random(long index) {
+        // independent of the order in which recipes are generated
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+    }
+}
@@ -0,0 +1,301 @@
+package com.stefanovich.recipebook.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeCursor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Open-model load test of the recipe API on a catalog from {@link CatalogGenerator}.
+ * Every scenario sends requests to one endpoint at a fixed arrival rate, whether or not earlier requests have
+ * completed, and measures latency from the moment a request was due, so a slow server cannot hide its queueing.
+ * The results are printed and written as JSON.
+ * <p>
+ * Options (all optional):
+ * --base-url=http://localhost:8080 --catalog-recipes=1000000 --catalog-ingredients=50000 --random-seed=42
+ * --zipf-exponent=1.0 --import-batch=50000 --scenarios=list:200,filter:100,create:20,update:20
+ * --warmup=15 --duration=60 --max-in-flight=2000 --summary-file=target/loadtest/summary.json
+ */
+public class OpenModelLoadTest {
+    private static final String RECIPES = "/api/v1/recipes";
+    private static final Pattern ID = Pattern.compile("^\\{\"id\":(\\d+)");
+    private static final int SAMPLED_IDS = 100_000;
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final CatalogGenerator generator;
+    private final long catalogRecipes;
+    private final long randomSeed;
+    private final AtomicLong createdRecipes = new AtomicLong();
+    private int[] recipeIds;
+
+    OpenModelLoadTest(String baseUrl, CatalogGenerator generator, long catalogRecipes, long randomSeed) {
+        this.baseUrl = baseUrl;
+        this.generator = generator;
+        this.catalogRecipes = catalogRecipes;
+        this.randomSeed = randomSeed;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(32))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Options.parse(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        long catalogRecipes = Long.parseLong(options.getOrDefault("catalog-recipes", "1000000"));
+        int catalogIngredients = Integer.parseInt(options.getOrDefault("catalog-ingredients", "50000"));
+        long randomSeed = Long.parseLong(options.getOrDefault("random-seed", "42"));
+        double zipfExponent = Double.parseDouble(options.getOrDefault("zipf-exponent", "1.0"));
+        int importBatch = Integer.parseInt(options.getOrDefault("import-batch", "50000"));
+        String scenarios = options.getOrDefault("scenarios", "list:200,filter:100,create:20,update:20");
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        Path summaryFile = Path.of(options.getOrDefault("summary-file", "target/loadtest/summary.json"));
+
+        CatalogGenerator generator = new CatalogGenerator(randomSeed, catalogIngredients, zipfExponent);
+        OpenModelLoadTest loadTest = new OpenModelLoadTest(baseUrl, generator, catalogRecipes, randomSeed);
+        if (Boolean.parseBoolean(options.getOrDefault("import", "true"))) {
+            loadTest.importCatalog(importBatch);
+        }
+        loadTest.sampleRecipeIds();
+
+        List<ScenarioResult> results = new ArrayList<>();
+        for (String scenario : scenarios.split(",")) {
+            String[] nameAndRate = scenario.trim().split(":");
+            Scenario type = Scenario.valueOf(nameAndRate[0].toUpperCase(Locale.ROOT));
+            int rate = Integer.parseInt(nameAndRate[1]);
+            loadTest.run(type, rate, warmup, maxInFlight);
+            ScenarioResult result = loadTest.run(type, rate, duration, maxInFlight);
+            System.out.println(result.format());
+            results.add(result);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startedAt", Instant.now().toString());
+        summary.put("baseUrl", baseUrl);
+        summary.put("catalog", Map.of("recipes", catalogRecipes, "ingredients", catalogIngredients,
+                "randomSeed", randomSeed, "zipfExponent", zipfExponent));
+        summary.put("scenarios", results);
+        if (summaryFile.getParent() != null) {
+            Files.createDirectories(summaryFile.getParent());
+        }
+        loadTest.objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(summaryFile.toFile(), summary);
+        System.out.println("Summary written to " + summaryFile);
+        System.exit(results.stream().allMatch(r -> r.errorRate() < 0.01) ? 0 : 1);
+    }
+
+    /**
+     * Imports the catalog through the bulk import endpoint, {@code batchSize} recipes per request.
+     */
+    void importCatalog(int batchSize) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long imported = 0;
+        for (long from = 0; from < catalogRecipes; from += batchSize) {
+            long to = Math.min(from + batchSize, catalogRecipes);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + RECIPES + "/import"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .timeout(Duration.ofMinutes(30))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(generator.toNdjson(from, to)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Import failed with " + response.statusCode() + ": " + response.body());
+            }
+            imported += objectMapper.readTree(response.body()).path("imported").asLong();
+            System.out.printf(Locale.ROOT, "Imported %d/%d recipes%n", imported, catalogRecipes);
+        }
+        System.out.printf(Locale.ROOT, "Imported the catalog in %d s%n", (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    /**
+     * Draws a uniform sample of the existing recipe ids from the streamed v2 recipe list, as targets of updates
+     * and starting points of pages.
+     */
+    void sampleRecipeIds() throws IOException, InterruptedException {
+        Random random = new Random(randomSeed);
+        int[] sample = new int[SAMPLED_IDS];
+        long seen = 0;
+        HttpResponse<Stream<String>> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v2/recipes"))
+                .header("Accept", "application/x-ndjson")
+                .build(), HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            for (Iterator<String> iterator = lines.iterator(); iterator.hasNext(); ) {
+                Matcher id = ID.matcher(iterator.next());
+                if (!id.find()) {
+                    continue;
+                }
+                // reservoir sampling
+                if (seen < SAMPLED_IDS) {
+                    sample[(int) seen] = Integer.parseInt(id.group(1));
+                } else {
+                    long slot = (long) (random.nextDouble() * (seen + 1));
+                    if (slot < SAMPLED_IDS) {
+                        sample[(int) slot] = Integer.parseInt(id.group(1));
+                    }
+                }
+                seen++;
+            }
+        }
+        if (seen == 0) {
+            throw new IllegalStateException("There are no recipes to load test");
+        }
+        recipeIds = Arrays.copyOf(sample, (int) Math.min(seen, SAMPLED_IDS));
+        System.out.printf(Locale.ROOT, "Sampled %d of %d recipe ids%n", recipeIds.length, seen);
+    }
+
+    /**
+     * Sends requests of a scenario at a fixed rate for the given time.
+     */
+    ScenarioResult run(Scenario scenario, int rate, Duration duration, int maxInFlight) throws InterruptedException {
+        long intervalNanos = 1_000_000_000L / rate;
+        int planned = (int) (duration.toNanos() / intervalNanos);
+        long[] latencies = new long[planned];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        SplittableRandom random = new SplittableRandom(randomSeed ^ scenario.ordinal());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < planned; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                // the server is too far behind, count the request as failed rather than slowing the arrivals down
+                errors.incrementAndGet();
+                continue;
+            }
+            client.sendAsync(request(scenario, random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - due;
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        } else {
+                            succeeded.incrementAndGet();
+                        }
+                        latencies[completed.getAndIncrement()] = latency;
+                        inFlight.release();
+                    });
+        }
+        // wait for the requests still in flight
+        inFlight.tryAcquire(maxInFlight, 2, TimeUnit.MINUTES);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        return ScenarioResult.of(scenario, rate, duration, planned, Arrays.copyOf(latencies, completed.get()),
+                succeeded.get(), errors.get(), elapsedSeconds);
+    }
+
+    private HttpRequest request(Scenario scenario, SplittableRandom random) {
+        HttpRequest.Builder request = HttpRequest.newBuilder().timeout(Duration.ofSeconds(60));
+        switch (scenario) {
+            case LIST -> request.uri(URI.create(baseUrl + RECIPES + "?limit=50&cursor=" + RecipeCursor.encode(randomRecipeId(random))));
+            case FILTER -> request.uri(URI.create(baseUrl + RECIPES + "/filter?" + filterQuery(random)));
+            case CREATE -> request.uri(URI.create(baseUrl + RECIPES))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json(generator.recipe(catalogRecipes + createdRecipes.getAndIncrement()))));
+            case UPDATE -> request.uri(URI.create(baseUrl + RECIPES + "/" + randomRecipeId(random)))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(json(generator.recipe(random.nextLong(Math.max(catalogRecipes, 1))))));
+        }
+        return request.build();
+    }
+
+    /**
+     * A filter on one or two ingredients drawn by popularity, sometimes restricted to vegetarian recipes
+     * or excluding another ingredient.
+     */
+    private String filterQuery(SplittableRandom random) {
+        StringBuilder query = new StringBuilder("includeIngredients=").append(encode(generator.sampleIngredientName(random)));
+        if (random.nextInt(3) == 0) {
+            query.append("&includeIngredients=").append(encode(generator.sampleIngredientName(random)))
+                    .append("&matchMode=").append(random.nextBoolean() ? "all" : "any");
+        }
+        if (random.nextInt(4) == 0) {
+            query.append("&vegetarian=true");
+        }
+        if (random.nextInt(5) == 0) {
+            query.append("&excludeIngredients=").append(encode(generator.sampleIngredientName(random)));
+        }
+        return query.toString();
+    }
+
+    private int randomRecipeId(SplittableRandom random) {
+        return recipeIds[random.nextInt(recipeIds.length)];
+    }
+
+    private byte[] json(RecipeDTO recipe) {
+        try {
+            return objectMapper.writeValueAsBytes(recipe);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    enum Scenario {LIST, FILTER, CREATE, UPDATE}
+
+    record ScenarioResult(String scenario,
+                          int targetRate,
+                          long durationSeconds,
+                          int requests,
+                          int completed,
+                          long errors,
+                          double errorRate,
+                          double throughput,
+                          double p50Millis,
+                          double p95Millis,
+                          double p99Millis,
+                          double maxMillis) {
+
+        static ScenarioResult of(Scenario scenario, int rate, Duration duration, int requests, long[] latencies,
+                                 int succeeded, long errors, double elapsedSeconds) {
+            Arrays.sort(latencies);
+            return new ScenarioResult(scenario.name().toLowerCase(Locale.ROOT), rate, duration.toSeconds(), requests,
+                    latencies.length, errors, requests == 0 ? 0 : errors / (double) requests,
+                    succeeded / elapsedSeconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                    latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%-7s rate=%d/s requests=%d errors=%d (%.2f%%) throughput=%.1f req/s p50=%.1f ms p95=%.1f ms p99=%.1f ms max=%.1f ms",
+                    scenario, targetRate, requests, errors, errorRate * 100, throughput, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+}
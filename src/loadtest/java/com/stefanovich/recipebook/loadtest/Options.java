@@ -0,0 +1,23 @@
+package com.stefanovich.recipebook.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load test tools, given as {@code --name=value}.
+ */
+final class Options {
+
+    private Options() {
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,183 @@
+package com.stefanovich.recipebook.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-model load test of the recipe API: a fixed number of clients send requests back to back for a fixed time.
+ * The request mix and the seeded recipes come from a fixed random seed, so runs against the platform-thread
+ * and the virtual-thread setup see the same load.
+ * <p>
+ * Options (all optional): --base-url=http://localhost:8080 --clients=400 --warmup=15 --duration=60
+ * --seed-recipes=2000 --label=platform --random-seed=42
+ */
+public class RecipeLoadTest {
+    private static final String RECIPES = "/api/v1/recipes";
+    private static final Pattern ID = Pattern.compile("\\{\"id\":(\\d+),\"name\":\"[^\"]*\",\"instructions\"");
+    private static final String[] INGREDIENTS = {"salmon", "potatoes", "leek", "garlic", "onion", "tomato", "basil",
+            "cheese", "rice", "chicken", "tofu", "carrot", "pepper", "lemon", "butter", "flour"};
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    RecipeLoadTest(String baseUrl, int clients) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, clients / 8)))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Options.parse(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "400"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int seedRecipes = Integer.parseInt(options.getOrDefault("seed-recipes", "2000"));
+        long randomSeed = Long.parseLong(options.getOrDefault("random-seed", "42"));
+        String label = options.getOrDefault("label", "run");
+
+        RecipeLoadTest loadTest = new RecipeLoadTest(baseUrl, clients);
+        if (seedRecipes > 0) {
+            loadTest.seed(seedRecipes, new Random(randomSeed));
+        }
+        int maxRecipeId = loadTest.maxRecipeId();
+
+        loadTest.run(clients, Duration.ofSeconds(warmupSeconds), maxRecipeId, randomSeed);
+        Result result = loadTest.run(clients, Duration.ofSeconds(durationSeconds), maxRecipeId, randomSeed);
+        System.out.println(result.format(label, clients));
+        System.exit(0);
+    }
+
+    /**
+     * Imports generated recipes through the bulk import endpoint.
+     */
+    void seed(int count, Random random) throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append("{\"name\":\"Load test recipe ").append(i)
+                    .append("\",\"instructions\":\"Mix and cook\",\"preparationTime\":").append(10 + random.nextInt(50))
+                    .append(",\"servings\":").append(1 + random.nextInt(6))
+                    .append(",\"difficulty\":\"").append(random.nextBoolean() ? "EASY" : "MEDIUM")
+                    .append("\",\"vegetarian\":").append(random.nextInt(3) == 0)
+                    .append(",\"ingredients\":[");
+            int ingredients = 2 + random.nextInt(5);
+            for (int j = 0; j < ingredients; j++) {
+                body.append(j == 0 ? "" : ",")
+                        .append("{\"ingredient\":{\"name\":\"").append(INGREDIENTS[random.nextInt(INGREDIENTS.length)])
+                        .append("\"},\"quantity\":").append(50 + random.nextInt(200)).append(",\"unitOfMeasure\":\"g\"}");
+            }
+            body.append("]}\n");
+        }
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + RECIPES + "/import"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        System.out.println("Seeded recipes: " + response.statusCode() + " " + response.body());
+    }
+
+    /**
+     * Reads the highest recipe id by following the recipe pages to the last one.
+     */
+    int maxRecipeId() throws IOException, InterruptedException {
+        int maxId = 1;
+        String next = baseUrl + RECIPES + "?limit=500";
+        while (next != null) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(next)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher ids = ID.matcher(response.body());
+            while (ids.find()) {
+                maxId = Math.max(maxId, Integer.parseInt(ids.group(1)));
+            }
+            next = response.headers().firstValue("Link")
+                    .map(link -> link.substring(link.indexOf('<') + 1, link.indexOf('>')))
+                    .orElse(null);
+        }
+        return maxId;
+    }
+
+    Result run(int clients, Duration duration, int maxRecipeId, long randomSeed) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            Random random = new Random(randomSeed + i);
+            workers.execute(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(nextRequest(random, maxRecipeId), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                latencies.add(Arrays.copyOf(samples, count));
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 120, TimeUnit.SECONDS);
+        return Result.of(latencies, errors.get(), duration);
+    }
+
+    /**
+     * The request mix: mostly single recipes and filters, some pages of the recipe list.
+     */
+    private HttpRequest nextRequest(Random random, int maxRecipeId) {
+        int kind = random.nextInt(10);
+        String path;
+        if (kind < 5) {
+            path = RECIPES + "/" + (1 + random.nextInt(maxRecipeId));
+        } else if (kind < 8) {
+            path = RECIPES + "/filter?vegetarian=" + random.nextBoolean()
+                    + "&includeIngredients=" + INGREDIENTS[random.nextInt(INGREDIENTS.length)]
+                    + "&servings=" + (1 + random.nextInt(6));
+        } else {
+            path = RECIPES + "?limit=50";
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    record Result(long requests, long errors, double throughput, double p50Millis, double p99Millis, double maxMillis) {
+
+        static Result of(List<long[]> latencies, long errors, Duration duration) {
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            if (all.length == 0) {
+                return new Result(0, errors, 0, 0, 0, 0);
+            }
+            return new Result(all.length, errors, all.length / (double) duration.toSeconds(),
+                    percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+        }
+
+        String format(String label, int clients) {
+            return String.format(Locale.ROOT, "%-10s clients=%d requests=%d errors=%d throughput=%.1f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms",
+                    label, clients, requests, errors, throughput, p50Millis, p99Millis, maxMillis);
+        }
+    }
+}
@@ -1,16 +1,38 @@
 package com.stefanovich.recipebook.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.stefanovich.recipebook.exception.RecipeVersionConflictException;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
 import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeBatchOperation;
+import com.stefanovich.recipebook.model.dto.RecipeBatchReport;
+import com.stefanovich.recipebook.model.dto.RecipeChange;
 import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDeleteReport;
+import com.stefanovich.recipebook.model.dto.RecipeDeleteRequest;
+import com.stefanovich.recipebook.model.dto.RecipeImportReport;
+import com.stefanovich.recipebook.model.dto.RecipePage;
+import com.stefanovich.recipebook.service.RecipeBatchService;
+import com.stefanovich.recipebook.service.RecipeChangeFeed;
+import com.stefanovich.recipebook.service.RecipeExportService;
+import com.stefanovich.recipebook.service.RecipeImportService;
 import com.stefanovich.recipebook.service.RecipeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,7 +40,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class RecipeApi implements RecipeApiSwagger {
     private final RecipeService recipeService;
+    private final RecipeExportService recipeExportService;
+    private final RecipeImportService recipeImportService;
+    private final RecipeBatchService recipeBatchService;
+    private final RecipeChangeFeed recipeChangeFeed;
     private static final Logger logger = LoggerFactory.getLogger(RecipeApi.class);
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
 
 
     // in advice error(with stacktrace) or warn log
@@ -39,28 +66,165 @@ public class RecipeApi implements RecipeApiSwagger {
 
     /**
      * Updates an existing recipe.
+     * With an {@code If-Match} header, the recipe is only updated if its version still matches the ETag.
      *
      * @param recipeId      The ID of the recipe to update.
+     * @param ifMatch       The ETag of the version the client last read, or null to update any version.
      * @param updatedRecipe The data transfer object containing the updated details of the recipe.
-     * @return A ResponseEntity containing the updated recipe as a data transfer object.
+     * @return A ResponseEntity containing the updated recipe as a data transfer object and its new ETag.
      */
     @PutMapping("/{recipeId}")
-    public ResponseEntity<RecipeDTO> updateRecipe(@Valid @PathVariable Long recipeId, @RequestBody RecipeDTO updatedRecipe) {
-        logger.info("Updating recipe with id {}: {}", recipeId, updatedRecipe);
-        RecipeDTO updated = recipeService.updateRecipe(recipeId, updatedRecipe);
+    public ResponseEntity<RecipeDTO> updateRecipe(@Valid @PathVariable Long recipeId,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @RequestBody RecipeDTO updatedRecipe) {
+        logger.info("Updating recipe with id {} (If-Match {}): {}", recipeId, ifMatch, updatedRecipe);
+        RecipeDTO updated = recipeService.updateRecipe(recipeId, updatedRecipe, parseIfMatch(ifMatch));
         logger.debug("Updated recipe: {}", updated);
-        return ResponseEntity.ok(updated);
+        return withETag(ResponseEntity.ok(), updated);
     }
 
     /**
-     * Retrieves all recipes.
+     * Partially updates an existing recipe with a JSON Merge Patch (RFC 7396).
+     * Only the patched columns are written; an {@code ingredients} member replaces the whole ingredient list.
      *
-     * @return A list of all recipes as data transfer objects.
+     * @param recipeId The ID of the recipe to patch.
+     * @param ifMatch  The ETag of the version the client last read, or null to patch any version.
+     * @param patch    The merge patch.
+     * @return A ResponseEntity containing the patched recipe as a data transfer object and its new ETag.
+     */
+    @PatchMapping(value = "/{recipeId}", consumes = MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<RecipeDTO> patchRecipe(@PathVariable Long recipeId,
+                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @RequestBody JsonNode patch) {
+        logger.info("Patching recipe with id {} (If-Match {}): {}", recipeId, ifMatch, patch);
+        RecipeDTO patched = recipeService.patchRecipe(recipeId, patch, parseIfMatch(ifMatch));
+        logger.debug("Patched recipe: {}", patched);
+        return withETag(ResponseEntity.ok(), patched);
+    }
+
+    /**
+     * Retrieves a recipe with its ingredients.
+     * The response carries the version of the recipe as a strong ETag. If it matches the
+     * {@code If-None-Match} header, the recipe is not loaded and 304 Not Modified is returned without a body.
+     *
+     * @param recipeId The ID of the recipe to retrieve.
+     * @param request  The current request, checked for {@code If-None-Match}.
+     * @return A ResponseEntity containing the recipe as a data transfer object, or null if it was not modified.
+     */
+    @GetMapping("/{recipeId}")
+    public ResponseEntity<RecipeDTO> getRecipe(@PathVariable Long recipeId, WebRequest request) {
+        logger.info("Getting recipe with id {}", recipeId);
+        Integer version = recipeService.getRecipeVersion(recipeId);
+        if (request.checkNotModified(eTag(version))) {
+            logger.debug("Recipe with id {} not modified", recipeId);
+            return null;
+        }
+        RecipeDTO recipe = recipeService.getRecipe(recipeId);
+        logger.debug("Got recipe: {}", recipe);
+        return withETag(ResponseEntity.ok(), recipe);
+    }
+
+    /**
+     * Retrieves a page of recipes.
+     * The cursor of the next page is returned in a {@code Link} header with {@code rel="next"}.
+     *
+     * @param limit  The maximum number of recipes to return.
+     * @param cursor The cursor of the page to return, or null for the first page.
+     * @return A ResponseEntity containing the page of recipes as data transfer objects.
      */
     @GetMapping
-    public List<RecipeDTO> getAllRecipes() {
-        logger.info("Getting all recipes");
-        return recipeService.getAllRecipes();
+    public ResponseEntity<List<RecipeDTO>> getAllRecipes(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        logger.info("Getting recipes - limit: {}, cursor: {}", limit, cursor);
+        RecipePage page = recipeService.getRecipesPage(cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNext() != null) {
+            String nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNext())
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Exports all recipes as newline-delimited JSON.
+     * Recipes are streamed to the client as they are read, so the response can cover the whole catalog.
+     *
+     * @return A ResponseEntity streaming one recipe data transfer object per line.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRecipes() {
+        logger.info("Exporting all recipes");
+        StreamingResponseBody body = recipeExportService::exportRecipes;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Streams the recipe changes as Server-Sent Events, each with its sequence as event id.
+     * With a {@code Last-Event-ID} header, the changes missed since that event are sent first.
+     *
+     * @param lastEventId The id of the last event the client received, or null to only receive new changes.
+     * @return The emitter of the change events.
+     */
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        logger.info("Streaming recipe changes after {}", lastEventId);
+        return recipeChangeFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * Retrieves the recipe changes after a sequence, for clients that fell behind the change stream.
+     *
+     * @param since The sequence of the last change the client has seen, 0 for all changes.
+     * @param limit The maximum number of changes to return.
+     * @return A ResponseEntity containing the changes in sequence order.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<List<RecipeChange>> getChanges(
+            @RequestParam(name = "since", defaultValue = "0") long since,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        logger.info("Getting recipe changes - since: {}, limit: {}", since, limit);
+        return ResponseEntity.ok(recipeChangeFeed.getChangesSince(since, limit));
+    }
+
+    /**
+     * Imports recipes in bulk from newline-delimited JSON or CSV.
+     *
+     * @param contentType The content type of the request body.
+     * @param body        The request body, one recipe per line.
+     * @return A ResponseEntity containing the number of imported recipes and the errors of rejected lines.
+     * @throws IOException if reading the request body fails.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<RecipeImportReport> importRecipes(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                            InputStream body) throws IOException {
+        logger.info("Importing recipes from {}", contentType);
+        RecipeImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? RecipeImportService.Format.NDJSON
+                : RecipeImportService.Format.CSV;
+        RecipeImportReport report = recipeImportService.importRecipes(body, format);
+        logger.debug("Imported recipes: {}", report);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Creates and updates many recipes in one request.
+     *
+     * @param operations The operations; an operation with an id updates that recipe, the others create one.
+     * @return A ResponseEntity containing the result of every operation.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<RecipeBatchReport> applyBatch(@RequestBody List<RecipeBatchOperation> operations) {
+        logger.info("Applying a batch of {} recipe operations", operations.size());
+        RecipeBatchReport report = recipeBatchService.apply(operations);
+        logger.debug("Applied recipe batch: {}", report);
+        return ResponseEntity.ok(report);
     }
 
     /**
@@ -69,6 +233,7 @@ public class RecipeApi implements RecipeApiSwagger {
      * @param vegetarian         Whether the recipes should be vegetarian.
      * @param servings           The number of servings the recipes should have.
      * @param includeIngredients The ingredients the recipes should include.
+     * @param matchMode          Whether the recipes should include any (default) or all of the included ingredients.
      * @param excludeIngredients The ingredients the recipes should exclude.
      * @param searchText         The text to search for in the recipes.
      * @return A ResponseEntity containing a list of recipes that match the given criteria.
@@ -78,12 +243,13 @@ public class RecipeApi implements RecipeApiSwagger {
             @RequestParam(name = "vegetarian", required = false) Boolean vegetarian,
             @RequestParam(name = "servings", required = false) Integer servings,
             @RequestParam(name = "includeIngredients", required = false) List<String> includeIngredients,
+            @RequestParam(name = "matchMode", required = false, defaultValue = "any") IngredientMatchMode matchMode,
             @RequestParam(name = "excludeIngredients", required = false) List<String> excludeIngredients,
             @RequestParam(name = "searchText", required = false) String searchText
     ) {
-        logger.info("Filtering recipes with parameters - vegetarian: {}, servings: {}, includeIngredients: {}, excludeIngredients: {}, searchText: {}",
-                vegetarian, servings, includeIngredients, excludeIngredients, searchText);
-        List<Recipe> filteredRecipes = recipeService.filterRecipes(vegetarian, servings, includeIngredients, excludeIngredients, searchText);
+        logger.info("Filtering recipes with parameters - vegetarian: {}, servings: {}, includeIngredients: {}, matchMode: {}, excludeIngredients: {}, searchText: {}",
+                vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText);
+        List<Recipe> filteredRecipes = recipeService.filterRecipes(vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText);
         logger.debug("Filtered recipes: {}", filteredRecipes);
         return ResponseEntity.ok(filteredRecipes);
     }
@@ -102,4 +268,48 @@ public class RecipeApi implements RecipeApiSwagger {
         return ResponseEntity.noContent().build();
 
     }
+
+    /**
+     * Deletes many recipes at once, either by their IDs or by filter criteria.
+     *
+     * @param request The IDs of the recipes to delete, or the criteria they match.
+     * @return A ResponseEntity containing the number of deleted recipes and ingredient rows.
+     */
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<RecipeDeleteReport> deleteRecipes(@RequestBody RecipeDeleteRequest request) {
+        logger.info("Deleting recipes: {}", request);
+        RecipeDeleteReport report = recipeService.deleteRecipes(request);
+        logger.debug("Deleted recipes: {}", report);
+        return ResponseEntity.ok(report);
+    }
+
+    private static ResponseEntity<RecipeDTO> withETag(ResponseEntity.BodyBuilder response, RecipeDTO recipe) {
+        if (recipe != null && recipe.getVersion() != null) {
+            response.eTag(eTag(recipe.getVersion()));
+        }
+        return response.body(recipe);
+    }
+
+    private static String eTag(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Reads the expected recipe version from an {@code If-Match} header.
+     *
+     * @param ifMatch The header value, a single ETag or "*".
+     * @return The expected version, or null if any version matches.
+     * @throws RecipeVersionConflictException if the header is not the ETag of a recipe version.
+     */
+    private static Integer parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        // weak ETags never match If-Match, and fail to parse here
+        try {
+            return Integer.valueOf(ifMatch.trim().replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new RecipeVersionConflictException("If-Match " + ifMatch + " does not match any recipe version");
+        }
+    }
 }
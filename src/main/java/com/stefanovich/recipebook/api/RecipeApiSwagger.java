@@ -1,14 +1,30 @@
 package com.stefanovich.recipebook.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
 import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeBatchOperation;
+import com.stefanovich.recipebook.model.dto.RecipeBatchReport;
+import com.stefanovich.recipebook.model.dto.RecipeChange;
 import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDeleteReport;
+import com.stefanovich.recipebook.model.dto.RecipeDeleteRequest;
+import com.stefanovich.recipebook.model.dto.RecipeImportReport;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public interface RecipeApiSwagger {
@@ -20,24 +36,76 @@ public interface RecipeApiSwagger {
 
     @Operation(
             summary = "Update an existing recipe",
-            description = "This operation updates an existing recipe in the database. It takes the ID of the recipe to be updated and a RecipeDTO object containing the updated details. The operation returns the updated recipe as a RecipeDTO object."
+            description = "This operation updates an existing recipe in the database. It takes the ID of the recipe to be updated and a RecipeDTO object containing the updated details. With an If-Match header holding the ETag of the last read version, the update fails with 412 Precondition Failed if the recipe has changed since. The operation returns the updated recipe as a RecipeDTO object and its new ETag."
     )
-    ResponseEntity<RecipeDTO> updateRecipe(@PathVariable Long recipeId, @RequestBody RecipeDTO updatedRecipe);
+    ResponseEntity<RecipeDTO> updateRecipe(@PathVariable Long recipeId,
+                                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestBody RecipeDTO updatedRecipe);
 
     @Operation(
-            summary = "Get all recipes",
-            description = "This operation retrieves all recipes from the database and returns them as a list of RecipeDTO objects."
+            summary = "Partially update a recipe",
+            description = "This operation applies a JSON Merge Patch (application/merge-patch+json) to a recipe: members of the patch replace the details of the recipe and null members reset them. An ingredients member replaces the whole ingredient list; ingredients that are kept are updated in place, new ones are added and missing ones are removed. Only the changed columns are written. Supports If-Match like the full update and returns the patched recipe with its new ETag."
     )
-    List<RecipeDTO> getAllRecipes();
+    ResponseEntity<RecipeDTO> patchRecipe(@PathVariable Long recipeId,
+                                          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestBody JsonNode patch);
+
+    @Operation(
+            summary = "Get a recipe by ID",
+            description = "This operation retrieves a recipe with its ingredients. The response carries the version of the recipe as an ETag; when the If-None-Match header matches it, the operation returns 304 Not Modified without a body."
+    )
+    ResponseEntity<RecipeDTO> getRecipe(@PathVariable Long recipeId, WebRequest request);
+
+    @Operation(
+            summary = "Get recipes page by page",
+            description = "This operation retrieves recipes ordered by ID, at most limit recipes per page (capped at 200, 50 by default). When more recipes are available, the response carries a Link header with rel=\"next\" whose cursor parameter selects the next page."
+    )
+    ResponseEntity<List<RecipeDTO>> getAllRecipes(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor
+    );
+
+    @Operation(
+            summary = "Export all recipes",
+            description = "This operation streams every recipe as newline-delimited JSON (application/x-ndjson), one RecipeDTO object per line, ordered by ID. Memory use on the server does not depend on the number of recipes."
+    )
+    ResponseEntity<StreamingResponseBody> exportRecipes();
+
+    @Operation(
+            summary = "Stream recipe changes",
+            description = "This operation streams every committed create, update and delete of a recipe as a Server-Sent Event (text/event-stream). The data of an event is a RecipeChange object with the change type, the recipe ID and, unless it was deleted, the recipe; its id is the sequence of the change, which always increases. A client reconnecting with a Last-Event-ID header first receives the changes it missed. If they are no longer kept in memory, it receives a resync event instead, and should read them from GET /api/v1/recipes/changes."
+    )
+    SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId);
+
+    @Operation(
+            summary = "Get recipe changes since a sequence",
+            description = "This operation returns the recipe changes after the given sequence (0 for all changes) in sequence order, at most limit of them (100 by default, at most 1000). Every change has its sequence, its type (CREATED, UPDATED or DELETED), the recipe ID and the time of the change, but not the recipe. The sequence of the last change is the since of the next call."
+    )
+    ResponseEntity<List<RecipeChange>> getChanges(@RequestParam(name = "since", defaultValue = "0") long since,
+                                                  @RequestParam(name = "limit", required = false) Integer limit);
+
+    @Operation(
+            summary = "Import recipes in bulk",
+            description = "This operation imports a large number of recipes. The body is either newline-delimited JSON (application/x-ndjson) with one RecipeDTO object per line, or CSV (text/csv) with the columns name,instructions,preparationTime,servings,difficulty,vegetarian,ingredients where ingredients is a ';'-separated list of name:quantity:unit entries. Valid lines are imported in chunks; the operation returns the number of imported recipes, the throughput and an error for every rejected line."
+    )
+    ResponseEntity<RecipeImportReport> importRecipes(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                     InputStream body) throws IOException;
+
+    @Operation(
+            summary = "Create and update recipes in a batch",
+            description = "This operation applies a list of operations in one request. An operation with an id updates that recipe with the given RecipeDTO object (optionally only if it still has the given version), an operation without an id creates a new recipe. Valid operations are applied in chunks, each in one transaction with its recipes loaded in one query and its ingredients resolved at once. The operation returns the number of created, updated and failed recipes and the status of every operation: CREATED or UPDATED with the id and new version, or INVALID, NOT_FOUND, VERSION_CONFLICT or FAILED with an error."
+    )
+    ResponseEntity<RecipeBatchReport> applyBatch(@RequestBody List<RecipeBatchOperation> operations);
 
     @Operation(
             summary = "Filter recipes based on criteria",
-            description = "This operation filters recipes based on various criteria such as whether they are vegetarian, the number of servings they have, the ingredients they include or exclude, and a search text. It returns a list of recipes that match the given criteria."
+            description = "This operation filters recipes based on various criteria such as whether they are vegetarian, the number of servings they have, the ingredients they include (any or all of them, depending on matchMode) or exclude, and a search text. It returns a list of recipes that match the given criteria, each recipe once."
     )
     ResponseEntity<List<Recipe>> filterRecipes(
             @RequestParam(name = "vegetarian", required = false) Boolean vegetarian,
             @RequestParam(name = "servings", required = false) Integer servings,
             @RequestParam(name = "includeIngredients", required = false) List<String> includeIngredients,
+            @RequestParam(name = "matchMode", required = false, defaultValue = "any") IngredientMatchMode matchMode,
             @RequestParam(name = "excludeIngredients", required = false) List<String> excludeIngredients,
             @RequestParam(name = "searchText", required = false) String searchText
     );
@@ -48,4 +116,10 @@ public interface RecipeApiSwagger {
     )
     ResponseEntity<Void> deleteRecipe(@PathVariable Long recipeId);
 
+    @Operation(
+            summary = "Delete recipes in bulk",
+            description = "This operation deletes many recipes with a few set-based statements. The body holds either the IDs of the recipes to delete or a filter with the criteria of GET /filter (vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText); a filter without any criterion is rejected. The operation returns the number of deleted recipes and ingredient rows; IDs of recipes that do not exist are ignored."
+    )
+    ResponseEntity<RecipeDeleteReport> deleteRecipes(@RequestBody RecipeDeleteRequest request);
+
 }
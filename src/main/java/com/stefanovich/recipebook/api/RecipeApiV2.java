@@ -0,0 +1,131 @@
+package com.stefanovich.recipebook.api;
+
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.ReactiveRecipeService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Read-only recipe API served by {@link ReactiveRecipeService} over R2DBC.
+ * With {@code Accept: application/x-ndjson}, lists are streamed one recipe per line as the database produces
+ * them, and only as fast as the client reads them. Any other response is a JSON array, which Spring MVC collects
+ * before writing it, so it holds at most one v1 page of recipes.
+ */
+@RestController
+@RequestMapping("api/v2/recipes")
+@RequiredArgsConstructor
+public class RecipeApiV2 implements RecipeApiV2Swagger {
+    private final ReactiveRecipeService reactiveRecipeService;
+    private static final Logger logger = LoggerFactory.getLogger(RecipeApiV2.class);
+
+    /**
+     * Retrieves a recipe with its ingredients.
+     *
+     * @param recipeId The ID of the recipe to retrieve.
+     * @return The recipe as a data transfer object.
+     */
+    @GetMapping("/{recipeId}")
+    public Mono<RecipeDTO> getRecipe(@PathVariable Integer recipeId) {
+        logger.info("Getting recipe with id {}", recipeId);
+        return reactiveRecipeService.getRecipe(recipeId);
+    }
+
+    /**
+     * Streams recipes ordered by id as NDJSON, as the client reads them.
+     *
+     * @param limit  The maximum number of recipes to return, or null for all of them.
+     * @param cursor The cursor of a v1 page to start after, or null to start with the first recipe.
+     * @return The recipes as data transfer objects.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RecipeDTO> streamRecipes(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        logger.info("Streaming recipes - limit: {}, cursor: {}", limit, cursor);
+        return reactiveRecipeService.streamRecipes(cursor, limit);
+    }
+
+    /**
+     * Retrieves recipes ordered by id as a JSON array. The array is collected before it is written, so the limit
+     * has the default and maximum of a v1 page; streaming all recipes takes {@code Accept: application/x-ndjson}.
+     *
+     * @param limit  The maximum number of recipes to return, or null for the default page size.
+     * @param cursor The cursor of a v1 page to start after, or null to start with the first recipe.
+     * @return The recipes as data transfer objects.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<RecipeDTO> getAllRecipes(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        logger.info("Getting recipes - limit: {}, cursor: {}", limit, cursor);
+        return reactiveRecipeService.streamRecipes(cursor, ReactiveRecipeService.boundedLimit(limit));
+    }
+
+    /**
+     * Streams the recipes matching the given criteria as NDJSON, as the client reads them.
+     *
+     * @param vegetarian         Whether the recipes should be vegetarian.
+     * @param servings           The number of servings the recipes should have.
+     * @param includeIngredients The ingredients the recipes should include.
+     * @param matchMode          Whether the recipes should include any (default) or all of the included ingredients.
+     * @param excludeIngredients The ingredients the recipes should exclude.
+     * @param searchText         The text to search for in the recipes.
+     * @param limit              The maximum number of recipes to return, or null for all of them.
+     * @return The recipes that match the given criteria as data transfer objects.
+     */
+    @GetMapping(value = "/filter", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RecipeDTO> streamFilteredRecipes(
+            @RequestParam(name = "vegetarian", required = false) Boolean vegetarian,
+            @RequestParam(name = "servings", required = false) Integer servings,
+            @RequestParam(name = "includeIngredients", required = false) List<String> includeIngredients,
+            @RequestParam(name = "matchMode", required = false, defaultValue = "any") IngredientMatchMode matchMode,
+            @RequestParam(name = "excludeIngredients", required = false) List<String> excludeIngredients,
+            @RequestParam(name = "searchText", required = false) String searchText,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        logger.info("Streaming filtered recipes with parameters - vegetarian: {}, servings: {}, includeIngredients: {}, matchMode: {}, excludeIngredients: {}, searchText: {}, limit: {}",
+                vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText, limit);
+        Flux<RecipeDTO> recipes = reactiveRecipeService.filterRecipes(vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText);
+        return limit == null ? recipes : recipes.take(Math.max(limit, 0), true);
+    }
+
+    /**
+     * Filters recipes based on various criteria and returns them as a JSON array. The array is collected before
+     * it is written, so the limit has the default and maximum of a v1 page; streaming all matching recipes takes
+     * {@code Accept: application/x-ndjson}.
+     *
+     * @param vegetarian         Whether the recipes should be vegetarian.
+     * @param servings           The number of servings the recipes should have.
+     * @param includeIngredients The ingredients the recipes should include.
+     * @param matchMode          Whether the recipes should include any (default) or all of the included ingredients.
+     * @param excludeIngredients The ingredients the recipes should exclude.
+     * @param searchText         The text to search for in the recipes.
+     * @param limit              The maximum number of recipes to return, or null for the default page size.
+     * @return The recipes that match the given criteria as data transfer objects.
+     */
+    @GetMapping(value = "/filter", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<RecipeDTO> filterRecipes(
+            @RequestParam(name = "vegetarian", required = false) Boolean vegetarian,
+            @RequestParam(name = "servings", required = false) Integer servings,
+            @RequestParam(name = "includeIngredients", required = false) List<String> includeIngredients,
+            @RequestParam(name = "matchMode", required = false, defaultValue = "any") IngredientMatchMode matchMode,
+            @RequestParam(name = "excludeIngredients", required = false) List<String> excludeIngredients,
+            @RequestParam(name = "searchText", required = false) String searchText,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        logger.info("Filtering recipes with parameters - vegetarian: {}, servings: {}, includeIngredients: {}, matchMode: {}, excludeIngredients: {}, searchText: {}, limit: {}",
+                vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText, limit);
+        return reactiveRecipeService.filterRecipes(vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText)
+                .take(ReactiveRecipeService.boundedLimit(limit), true);
+    }
+}
@@ -0,0 +1,65 @@
+package com.stefanovich.recipebook.api;
+
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface RecipeApiV2Swagger {
+    @Operation(
+            summary = "Get a recipe by ID",
+            description = "This operation reads a recipe with its ingredients over the non-blocking R2DBC stack and returns it as a RecipeDTO object."
+    )
+    Mono<RecipeDTO> getRecipe(@PathVariable Integer recipeId);
+
+    @Operation(
+            summary = "Stream recipes",
+            description = "This operation streams recipes ordered by ID as newline-delimited JSON (application/x-ndjson), one RecipeDTO object per line. Recipes are read page by page as the client consumes them. The optional cursor of a v1 page starts the stream after that page, and the optional limit caps the number of recipes."
+    )
+    Flux<RecipeDTO> streamRecipes(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor
+    );
+
+    @Operation(
+            summary = "Get recipes",
+            description = "This operation returns recipes ordered by ID as a JSON array of RecipeDTO objects. Like a v1 page, it holds 50 recipes by default and at most 200, whatever the limit; all recipes can be streamed as application/x-ndjson. The optional cursor of a v1 page starts after that page."
+    )
+    Flux<RecipeDTO> getAllRecipes(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor
+    );
+
+    @Operation(
+            summary = "Stream recipes matching criteria",
+            description = "This operation filters recipes with the same criteria and semantics as the v1 filter, and streams the matching recipes as newline-delimited JSON (application/x-ndjson): ordered by ID, or best matches first with a search text. The optional limit caps the number of recipes."
+    )
+    Flux<RecipeDTO> streamFilteredRecipes(
+            @RequestParam(name = "vegetarian", required = false) Boolean vegetarian,
+            @RequestParam(name = "servings", required = false) Integer servings,
+            @RequestParam(name = "includeIngredients", required = false) List<String> includeIngredients,
+            @RequestParam(name = "matchMode", required = false, defaultValue = "any") IngredientMatchMode matchMode,
+            @RequestParam(name = "excludeIngredients", required = false) List<String> excludeIngredients,
+            @RequestParam(name = "searchText", required = false) String searchText,
+            @RequestParam(name = "limit", required = false) Integer limit
+    );
+
+    @Operation(
+            summary = "Filter recipes based on criteria",
+            description = "This operation filters recipes with the same criteria and semantics as the v1 filter, and returns the matching recipes as a JSON array of RecipeDTO objects: ordered by ID, or best matches first with a search text. The array holds 50 recipes by default and at most 200, whatever the limit; all matching recipes can be streamed as application/x-ndjson."
+    )
+    Flux<RecipeDTO> filterRecipes(
+            @RequestParam(name = "vegetarian", required = false) Boolean vegetarian,
+            @RequestParam(name = "servings", required = false) Integer servings,
+            @RequestParam(name = "includeIngredients", required = false) List<String> includeIngredients,
+            @RequestParam(name = "matchMode", required = false, defaultValue = "any") IngredientMatchMode matchMode,
+            @RequestParam(name = "excludeIngredients", required = false) List<String> excludeIngredients,
+            @RequestParam(name = "searchText", required = false) String searchText,
+            @RequestParam(name = "limit", required = false) Integer limit
+    );
+}
@@ -0,0 +1,61 @@
+package com.stefanovich.recipebook.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Compact binary encodings next to JSON, selected with the {@code Accept} header of a request for its response
+ * and with its {@code Content-Type} header for its body. Smile ({@code application/x-jackson-smile}) and CBOR
+ * ({@code application/cbor}) cover every endpoint and use the object mapper settings of the application;
+ * Protobuf ({@code application/x-protobuf}) covers recipes and lists of recipes.
+ * JSON stays the default: the binary converters come after the JSON one, so {@code Accept: *}{@code /*}
+ * still gets JSON.
+ */
+@Configuration
+public class BinaryEncodingConfig implements WebMvcConfigurer {
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
+
+    public BinaryEncodingConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders) {
+        this.objectMapperBuilders = objectMapperBuilders;
+    }
+
+    /**
+     * Replaces the default Smile converter, whose object mapper ignores the settings of the application.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapperBuilders.getObject().factory(new SmileFactory()).build());
+    }
+
+    /**
+     * Replaces the default CBOR converter, whose object mapper ignores the settings of the application.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(objectMapperBuilders.getObject().factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // appended, since converter beans would be put before the JSON converter
+        try {
+            converters.add(new RecipeProtobufHttpMessageConverter(
+                    objectMapperBuilders.getObject().factory(new ProtobufFactory()).build()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load the recipe Protobuf schema", e);
+        }
+    }
+}
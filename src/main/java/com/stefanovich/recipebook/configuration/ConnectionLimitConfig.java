@@ -0,0 +1,43 @@
+package com.stefanovich.recipebook.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link ConnectionLimitingDataSource} in front of the connection pool when
+ * {@code recipebook.datasource.connection-limit.enabled} is set, as it is in the virtual-threads profile.
+ * The number of permits defaults to the maximum size of the Hikari pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "recipebook.datasource.connection-limit.enabled", havingValue = "true")
+public class ConnectionLimitConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // only limit connection pools, not the proxies and routers in front of them
+                if (!(bean instanceof DataSource dataSource)
+                        || bean instanceof DelegatingDataSource
+                        || bean instanceof AbstractRoutingDataSource) {
+                    return bean;
+                }
+                int poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                int permits = environment.getProperty("recipebook.datasource.connection-limit.permits", Integer.class, poolSize);
+                Duration acquireTimeout = environment.getProperty("recipebook.datasource.connection-limit.acquire-timeout",
+                        Duration.class, Duration.ofSeconds(30));
+                return new ConnectionLimitingDataSource(dataSource, permits, acquireTimeout);
+            }
+        };
+    }
+}
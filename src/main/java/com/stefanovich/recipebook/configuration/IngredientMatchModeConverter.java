@@ -0,0 +1,19 @@
+package com.stefanovich.recipebook.configuration;
+
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Binds the matchMode request parameter case-insensitively, so that both "all" and "ALL" are accepted.
+ */
+@Component
+public class IngredientMatchModeConverter implements Converter<String, IngredientMatchMode> {
+
+    @Override
+    public IngredientMatchMode convert(String source) {
+        return IngredientMatchMode.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,44 @@
+package com.stefanovich.recipebook.configuration;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access for the v2 read API, next to the JDBC DataSource of the rest of the application.
+ * The connection pool is deliberately not a bean: Spring Boot backs off from the JDBC DataSource
+ * as soon as an R2DBC ConnectionFactory bean exists.
+ */
+@Configuration
+public class R2dbcConfig implements DisposableBean {
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfig(@Value("${recipebook.r2dbc.url}") String url,
+                       @Value("${recipebook.r2dbc.username}") String username,
+                       @Value("${recipebook.r2dbc.password}") String password,
+                       @Value("${recipebook.r2dbc.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,47 @@
+package com.stefanovich.recipebook.configuration;
+
+import java.util.function.Supplier;
+
+/**
+ * Whether the current request must read from the primary, because its client wrote recently
+ * and the replica may not have the write yet.
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Runs a read on the primary, whatever the routing of the current request, for results that outlive the
+     * request and must not lag behind the primary. The current transaction must not have taken its connection yet.
+     *
+     * @param read The read to run.
+     * @return The result of the read.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,32 @@
+package com.stefanovich.recipebook.configuration;
+
+import com.stefanovich.recipebook.service.RecipeFragmentCache;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Writes the JSON recipe lists of the list and filter endpoints from cached per-recipe fragments.
+ * The fragment converter is inserted right before the JSON converter, so it only takes over the JSON
+ * responses the JSON converter would have written.
+ */
+@Configuration
+public class RecipeFragmentConfig implements WebMvcConfigurer {
+    private final RecipeFragmentCache recipeFragmentCache;
+
+    public RecipeFragmentConfig(RecipeFragmentCache recipeFragmentCache) {
+        this.recipeFragmentCache = recipeFragmentCache;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        int json = 0;
+        while (json < converters.size() && !(converters.get(json) instanceof MappingJackson2HttpMessageConverter)) {
+            json++;
+        }
+        converters.add(json, new RecipeFragmentHttpMessageConverter(recipeFragmentCache));
+    }
+}
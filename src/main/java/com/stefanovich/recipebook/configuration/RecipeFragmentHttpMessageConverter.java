@@ -0,0 +1,84 @@
+package com.stefanovich.recipebook.configuration;
+
+import com.stefanovich.recipebook.mapper.RecipeDtoList;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeFragmentCache;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes JSON lists of recipes, as data transfer objects or entities, from the per-recipe fragments of the
+ * {@link RecipeFragmentCache}: only recipes without a fragment for their current version are serialized.
+ * The output is the same as that of the Jackson converter, which still writes every other type and reads
+ * every request body.
+ */
+public class RecipeFragmentHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<?>> {
+    private final RecipeFragmentCache recipeFragmentCache;
+
+    public RecipeFragmentHttpMessageConverter(RecipeFragmentCache recipeFragmentCache) {
+        super(MediaType.APPLICATION_JSON);
+        this.recipeFragmentCache = recipeFragmentCache;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() == List.class
+                && (parameterizedType.getActualTypeArguments()[0] == RecipeDTO.class
+                || parameterizedType.getActualTypeArguments()[0] == Recipe.class)
+                && canWrite(mediaType);
+    }
+
+    @Override
+    public List<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Recipe fragments are only written", inputMessage);
+    }
+
+    @Override
+    protected List<?> readInternal(Class<? extends List<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Recipe fragments are only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(List<?> items, Type type, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream body = outputMessage.getBody();
+        // the entities of a mapped list are written without mapping the recipes that have a fragment
+        List<?> values = items instanceof RecipeDtoList recipeDtoList ? recipeDtoList.getRecipes() : items;
+        boolean entities = !(items instanceof RecipeDtoList);
+        body.write('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            Object value = values.get(i);
+            if (value instanceof RecipeDTO recipeDTO) {
+                body.write(recipeFragmentCache.getDtoFragment(recipeDTO));
+            } else if (entities) {
+                body.write(recipeFragmentCache.getEntityFragment((Recipe) value));
+            } else {
+                body.write(recipeFragmentCache.getDtoFragment((Recipe) value));
+            }
+        }
+        body.write(']');
+    }
+}
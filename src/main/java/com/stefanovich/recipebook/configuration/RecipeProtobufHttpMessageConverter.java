@@ -0,0 +1,118 @@
+package com.stefanovich.recipebook.configuration;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes recipes and lists of recipes as Protobuf ({@code application/x-protobuf}), following the
+ * {@code Recipe} and {@code RecipeList} messages of {@code proto/recipe.proto}. Protobuf has no top-level lists,
+ * so a list is written as the {@code items} of a {@code RecipeList}. Other types are left to the other converters.
+ */
+public class RecipeProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final String SCHEMA_LOCATION = "proto/recipe.proto";
+
+    private final ObjectMapper objectMapper;
+    private final ProtobufSchema recipeSchema;
+    private final ProtobufSchema recipeListSchema;
+
+    public RecipeProtobufHttpMessageConverter(ObjectMapper objectMapper) throws IOException {
+        super(PROTOBUF);
+        Assert.isInstanceOf(ProtobufFactory.class, objectMapper.getFactory(), "ProtobufFactory required");
+        this.objectMapper = objectMapper;
+        ProtobufSchema schema;
+        try (InputStream inputStream = new ClassPathResource(SCHEMA_LOCATION).getInputStream()) {
+            schema = ProtobufSchemaLoader.std.load(inputStream);
+        }
+        this.recipeSchema = schema.withRootType("Recipe");
+        this.recipeListSchema = schema.withRootType("RecipeList");
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == RecipeDTO.class;
+    }
+
+    /**
+     * Also lists Protobuf for the value class of a list, which is all that content negotiation passes in; whether
+     * it is a list of recipes is checked by {@link #canWrite(Type, Class, MediaType)}.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == RecipeDTO.class || isRecipeList(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        Type valueType = type != null ? type : clazz;
+        return (valueType == RecipeDTO.class || isRecipeList(valueType)) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        try {
+            if (type == RecipeDTO.class) {
+                return objectMapper.readerFor(RecipeDTO.class).with(recipeSchema).readValue(inputMessage.getBody());
+            }
+            RecipeList recipeList = objectMapper.readerFor(RecipeList.class).with(recipeListSchema).readValue(inputMessage.getBody());
+            return recipeList.items;
+        } catch (JacksonException e) {
+            throw new HttpMessageNotReadableException("Invalid Protobuf message: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (value instanceof RecipeDTO) {
+            objectMapper.writer(recipeSchema).writeValue(StreamUtils.nonClosing(outputMessage.getBody()), value);
+            return;
+        }
+        RecipeList recipeList = new RecipeList();
+        recipeList.items = (List<RecipeDTO>) value;
+        objectMapper.writer(recipeListSchema).writeValue(StreamUtils.nonClosing(outputMessage.getBody()), recipeList);
+    }
+
+    private static boolean isRecipeList(Type type) {
+        return type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() == List.class
+                && parameterizedType.getActualTypeArguments()[0] == RecipeDTO.class;
+    }
+
+    /**
+     * The {@code RecipeList} message.
+     */
+    static class RecipeList {
+        public List<RecipeDTO> items = new ArrayList<>();
+    }
+}
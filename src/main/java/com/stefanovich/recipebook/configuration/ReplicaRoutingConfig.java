@@ -0,0 +1,103 @@
+package com.stefanovich.recipebook.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Routes read-only transactions to a replica when {@code recipebook.datasource.replica.enabled} is set.
+ * The primary pool is configured by {@code spring.datasource.*} as without a replica, the replica pool by
+ * {@code recipebook.datasource.replica.*}. Liquibase always migrates the primary; the replica is only migrated
+ * with {@code recipebook.datasource.replica.migrate}, for a second local database standing in for a replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "recipebook.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${recipebook.datasource.replica.url}") String url,
+                                              @Value("${recipebook.datasource.replica.username}") String username,
+                                              @Value("${recipebook.datasource.replica.password}") String password,
+                                              @Value("${recipebook.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+                                              @Value("${recipebook.datasource.replica.migrate:false}") boolean migrate,
+                                              @Value("${spring.liquibase.change-log:classpath:/db/changelog/db.changelog-master.yaml}") String changeLog,
+                                              ResourceLoader resourceLoader) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        if (migrate) {
+            // before the data source is handed out, so that no read sees a database without the schema;
+            // on connections of their own, since the pool is read-only and sealed once started
+            migrate(new DriverManagerDataSource(url, username, password), changeLog, resourceLoader);
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                             @Qualifier("replicaDataSource") DataSource replica,
+                                                             @Value("${recipebook.datasource.replica.max-lag:5s}") Duration maxLag,
+                                                             @Value("${recipebook.datasource.replica.lag-check-interval:1s}") Duration lagCheckInterval) {
+        return new ReplicaRoutingDataSource(primary, replica, maxLag, lagCheckInterval);
+    }
+
+    /**
+     * The data source of the application: connections are only taken from the primary or the replica
+     * once the first statement runs, when the transaction is known to be read-only or not.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${recipebook.datasource.replica.sticky-window:5s}") Duration stickyWindow) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(stickyWindow));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static void migrate(DataSource dataSource, String changeLog, ResourceLoader resourceLoader) {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(changeLog);
+        liquibase.setResourceLoader(resourceLoader);
+        try {
+            liquibase.afterPropertiesSet();
+        } catch (LiquibaseException e) {
+            throw new IllegalStateException("Could not migrate the replica database", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.stefanovich.recipebook.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the connections of read-only transactions to a replica and everything else to the primary.
+ * Reads fall back to the primary while the replica lags behind by more than {@code maxLag}, while its lag
+ * cannot be read, and while {@link ReadYourWrites} pins the current request to the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that the
+ * connection is only chosen once the transaction has been marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // zero when the replica has replayed everything it received, or when it is not a standby at all
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    enum Target {PRIMARY, REPLICA}
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxLag;
+    private final Duration lagCheckInterval;
+    private final ScheduledExecutorService lagChecker;
+    private volatile boolean replicaUsable;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag, Duration lagCheckInterval) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.lagCheckInterval = lagCheckInterval;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        // the first check runs now, so that reads do not start on the primary only because the checker has not run yet
+        checkLag();
+        long interval = lagCheckInterval.toMillis();
+        lagChecker.scheduleWithFixedDelay(this::checkLag, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentTarget();
+    }
+
+    Target currentTarget() {
+        if (replicaUsable
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWrites.isPrimaryRequired()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    /**
+     * Reads the replication lag of the replica and decides whether reads may go to it.
+     */
+    public void checkLag() {
+        try {
+            Double lagMillis = replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            recordLag(lagMillis == null ? null : Duration.ofMillis(lagMillis.longValue()));
+        } catch (RuntimeException e) {
+            recordLag(null);
+            logger.warn("Could not read the replica lag, reading from the primary: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param lag The replication lag of the replica, or null if it is unknown.
+     */
+    public void recordLag(Duration lag) {
+        boolean usable = lag != null && lag.compareTo(maxLag) <= 0;
+        if (usable != replicaUsable) {
+            logger.info("Replica lag is {}, reading from the {}", lag, usable ? "replica" : "primary");
+        }
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Override
+    public void destroy() {
+        lagChecker.shutdownNow();
+    }
+}
@@ -0,0 +1,27 @@
+package com.stefanovich.recipebook.configuration;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL full-text search functions used by the recipe search.
+ * Both take a recipe id and a query in to_tsquery syntax, and read the recipe's search_vector column in SQL:
+ * the column is maintained by database triggers and not mapped on the entity, so loading recipes never reads it.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry basicTypeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_match",
+                "(?1 in (select fts.id from recipe fts where fts.search_vector @@ to_tsquery('simple', ?2)))",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_rank",
+                "ts_rank((select fts.search_vector from recipe fts where fts.id = ?1), to_tsquery('simple', ?2))",
+                basicTypeRegistry.resolve(StandardBasicTypes.FLOAT));
+    }
+}
@@ -0,0 +1,75 @@
+package com.stefanovich.recipebook.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache, kept in local Caffeine caches behind JCache.
+ * Every region is created here with the size limit of {@code recipebook.second-level-cache.<region>.maximum-size};
+ * Hibernate fails to start on a region that is not listed. Hit, miss and put counters of every region
+ * are exposed with the other Hibernate statistics as {@code hibernate.second.level.cache.*} meters.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+    // the regions named by the @Cache annotations of the entities and the query hints of the repositories
+    private static final Map<String, Long> DEFAULT_MAXIMUM_SIZES = Map.of(
+            "recipe", 10_000L,
+            "recipe-ingredients", 10_000L,
+            "ingredient-in-recipe", 100_000L,
+            "ingredient", 10_000L,
+            "ingredient-by-name", 10_000L,
+            "default-query-results-region", 1_000L);
+
+    // must never evict, or cached query results could outlive a write to their tables
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    /**
+     * The default JCache manager of Caffeine. It is shared by the application contexts of a JVM (such as the
+     * contexts of tests), so regions are only created once and the manager is not closed with a context.
+     */
+    @Bean(destroyMethod = "")
+    public CacheManager secondLevelCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager();
+        DEFAULT_MAXIMUM_SIZES.forEach((region, defaultMaximumSize) -> {
+            long maximumSize = environment.getProperty("recipebook.second-level-cache." + region + ".maximum-size",
+                    Long.class, defaultMaximumSize);
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            createIfMissing(cacheManager, region, configuration);
+        });
+        createIfMissing(cacheManager, UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // ingredient rows changed through their recipe reference also evict the cached ingredient list
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+        };
+    }
+
+    private static void createIfMissing(CacheManager cacheManager, String region, CaffeineConfiguration<Object, Object> configuration) {
+        if (cacheManager.getCache(region) == null) {
+            cacheManager.createCache(region, configuration);
+        }
+    }
+}
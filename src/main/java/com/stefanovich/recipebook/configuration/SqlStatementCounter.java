@@ -0,0 +1,25 @@
+package com.stefanovich.recipebook.configuration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Callers take the count before and after
+ * a unit of work, e.g. a request, and use the difference, so units of work can be nested.
+ * Statements issued through JdbcTemplate are not counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * @return The number of statements prepared on the current thread so far.
+     */
+    public static long currentCount() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+}
@@ -0,0 +1,32 @@
+package com.stefanovich.recipebook.event;
+
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+
+/**
+ * Published by every write to a recipe, inside the writing transaction.
+ * Listeners that keep derived state in memory should react after commit.
+ *
+ * @param type     What happened to the recipe.
+ * @param recipeId The ID of the recipe.
+ * @param recipe   The recipe as written, or null if it was deleted.
+ */
+public record RecipeChangedEvent(ChangeType type, Integer recipeId, RecipeDTO recipe) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static RecipeChangedEvent created(RecipeDTO recipe) {
+        return new RecipeChangedEvent(ChangeType.CREATED, recipe.getId(), recipe);
+    }
+
+    public static RecipeChangedEvent updated(RecipeDTO recipe) {
+        return new RecipeChangedEvent(ChangeType.UPDATED, recipe.getId(), recipe);
+    }
+
+    public static RecipeChangedEvent deleted(Integer recipeId) {
+        return new RecipeChangedEvent(ChangeType.DELETED, recipeId, null);
+    }
+}
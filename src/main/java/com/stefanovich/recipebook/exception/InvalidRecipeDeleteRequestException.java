@@ -0,0 +1,7 @@
+package com.stefanovich.recipebook.exception;
+
+public class InvalidRecipeDeleteRequestException extends RuntimeException {
+    public InvalidRecipeDeleteRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.stefanovich.recipebook.exception;
+
+public class InvalidRecipePatchException extends RuntimeException {
+    public InvalidRecipePatchException(String message) {
+        super(message);
+    }
+}
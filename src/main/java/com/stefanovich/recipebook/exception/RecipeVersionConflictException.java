@@ -0,0 +1,7 @@
+package com.stefanovich.recipebook.exception;
+
+public class RecipeVersionConflictException extends RuntimeException {
+    public RecipeVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.stefanovich.recipebook.mapper;
+
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list of recipe data transfer objects, each mapped from its entity on first access.
+ * Responses written from cached JSON fragments only read the entities, so recipes whose fragment is cached
+ * are never mapped. The entities must have their ingredients loaded.
+ */
+public class RecipeDtoList extends AbstractList<RecipeDTO> implements RandomAccess {
+    private final List<Recipe> recipes;
+    private final RecipeMapper recipeMapper;
+    private final RecipeDTO[] recipeDTOs;
+
+    public RecipeDtoList(List<Recipe> recipes, RecipeMapper recipeMapper) {
+        this.recipes = List.copyOf(recipes);
+        this.recipeMapper = recipeMapper;
+        this.recipeDTOs = new RecipeDTO[recipes.size()];
+    }
+
+    @Override
+    public RecipeDTO get(int index) {
+        RecipeDTO recipeDTO = recipeDTOs[index];
+        if (recipeDTO == null) {
+            recipeDTO = recipeMapper.toDto(recipes.get(index));
+            recipeDTOs[index] = recipeDTO;
+        }
+        return recipeDTO;
+    }
+
+    @Override
+    public int size() {
+        return recipes.size();
+    }
+
+    /**
+     * @return The entities of the list, which must not be modified.
+     */
+    public List<Recipe> getRecipes() {
+        return recipes;
+    }
+}
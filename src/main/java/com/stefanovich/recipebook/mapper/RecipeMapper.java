@@ -0,0 +1,80 @@
+package com.stefanovich.recipebook.mapper;
+
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps recipe entities to data transfer objects.
+ * Produces the same output as the former ModelMapper based conversion without any reflection.
+ */
+@Component
+public class RecipeMapper {
+
+    /**
+     * Converts a Recipe entity to a RecipeDTO object.
+     *
+     * @param recipe The Recipe entity to convert.
+     * @return The converted RecipeDTO object.
+     */
+    public RecipeDTO toDto(Recipe recipe) {
+        return toDto(recipe, recipe.getIngredients());
+    }
+
+    /**
+     * Converts a Recipe entity to a RecipeDTO object using ingredients that were loaded separately.
+     *
+     * @param recipe      The Recipe entity to convert.
+     * @param ingredients The ingredients of the recipe.
+     * @return The converted RecipeDTO object.
+     */
+    public RecipeDTO toDto(Recipe recipe, List<IngredientInRecipe> ingredients) {
+        RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(recipe.getId());
+        recipeDTO.setName(recipe.getName());
+        recipeDTO.setInstructions(recipe.getInstructions());
+        recipeDTO.setPreparationTime(recipe.getPreparationTime());
+        recipeDTO.setServings(recipe.getServings());
+        recipeDTO.setDifficulty(recipe.getDifficulty() == null ? null : recipe.getDifficulty().name());
+        recipeDTO.setVegetarian(recipe.isVegetarian());
+
+        List<IngredientInRecipeDTO> ingredientDTOs = new ArrayList<>(ingredients.size());
+        for (IngredientInRecipe ingredientInRecipe : ingredients) {
+            ingredientDTOs.add(toDto(ingredientInRecipe));
+        }
+        recipeDTO.setIngredients(ingredientDTOs);
+        recipeDTO.setVersion(recipe.getVersion());
+        return recipeDTO;
+    }
+
+    /**
+     * Converts an IngredientInRecipe entity to an IngredientInRecipeDTO object.
+     *
+     * @param ingredientInRecipe The IngredientInRecipe entity to convert.
+     * @return The converted IngredientInRecipeDTO object.
+     */
+    public IngredientInRecipeDTO toDto(IngredientInRecipe ingredientInRecipe) {
+        IngredientInRecipeDTO ingredientInRecipeDTO = new IngredientInRecipeDTO();
+        ingredientInRecipeDTO.setId(ingredientInRecipe.getId());
+        ingredientInRecipeDTO.setIngredient(toDto(ingredientInRecipe.getIngredient()));
+        Recipe recipe = ingredientInRecipe.getRecipe();
+        ingredientInRecipeDTO.setRecipeId(recipe == null ? null : recipe.getId());
+        ingredientInRecipeDTO.setQuantity(ingredientInRecipe.getQuantity());
+        ingredientInRecipeDTO.setUnitOfMeasure(ingredientInRecipe.getUnitOfMeasure());
+        return ingredientInRecipeDTO;
+    }
+
+    private IngredientDTO toDto(Ingredient ingredient) {
+        if (ingredient == null) {
+            return null;
+        }
+        return new IngredientDTO(ingredient.getId(), ingredient.getName());
+    }
+}
@@ -7,14 +7,21 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "ingredientinrecipe")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ingredient-in-recipe")
 @Data
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class IngredientInRecipe {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredientinrecipe_id_seq")
+    @SequenceGenerator(name = "ingredientinrecipe_id_seq", sequenceName = "ingredientinrecipe_id_seq", allocationSize = 50)
     Integer id;
     @NotNull(message = "ingredient should not be null")
     @ManyToOne
@@ -0,0 +1,15 @@
+package com.stefanovich.recipebook.model;
+
+/**
+ * How the included ingredients of a recipe filter are matched.
+ */
+public enum IngredientMatchMode {
+    /**
+     * Recipes including at least one of the ingredients.
+     */
+    ANY,
+    /**
+     * Recipes including every one of the ingredients.
+     */
+    ALL
+}
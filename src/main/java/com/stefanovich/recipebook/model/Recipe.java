@@ -9,17 +9,24 @@ import jakarta.validation.constraints.Size;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe")
 @Data
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Recipe {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_id_seq")
+    @SequenceGenerator(name = "recipe_id_seq", sequenceName = "recipe_id_seq", allocationSize = 50)
     Integer id;
     @NotBlank
     @Size(min = 2, max = 100)
@@ -34,9 +41,12 @@ public class Recipe {
     @Enumerated(EnumType.STRING)
     Difficulty difficulty = Difficulty.MEDIUM;
     boolean vegetarian = false;
-    @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-ingredients")
     @JsonManagedReference
     List<IngredientInRecipe> ingredients = new ArrayList<>();
+    @Version
+    Integer version;
 
     public Recipe() {
 
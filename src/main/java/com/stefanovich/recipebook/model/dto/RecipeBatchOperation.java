@@ -0,0 +1,20 @@
+package com.stefanovich.recipebook.model.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * One operation of a recipe batch: an operation with an id updates that recipe, one without creates a new recipe.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RecipeBatchOperation {
+    Integer id;
+    /**
+     * The version of the recipe the client last read, like If-Match; null updates any version.
+     */
+    Integer version;
+    RecipeDTO recipe;
+}
@@ -0,0 +1,44 @@
+package com.stefanovich.recipebook.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RecipeBatchReport {
+    long created;
+    long updated;
+    long failed;
+    /**
+     * The result of every operation, in the order of the request.
+     */
+    List<ItemResult> items = new ArrayList<>();
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID,
+        NOT_FOUND,
+        VERSION_CONFLICT,
+        FAILED
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemResult {
+        int index;
+        Status status;
+        Integer id;
+        Integer version;
+        String error;
+    }
+}
@@ -0,0 +1,27 @@
+package com.stefanovich.recipebook.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipeChange {
+    /**
+     * Increases with every change; also the id of the change in the event stream.
+     */
+    long sequence;
+    RecipeChangedEvent.ChangeType type;
+    Integer recipeId;
+    Instant changedAt;
+    /**
+     * The recipe as written, only sent in the event stream and never for deleted recipes.
+     */
+    RecipeDTO recipe;
+}
@@ -27,4 +27,5 @@ public class RecipeDTO {
     String difficulty;
     boolean vegetarian;
     List<IngredientInRecipeDTO> ingredients = new ArrayList<>();
+    Integer version;
 }
@@ -0,0 +1,13 @@
+package com.stefanovich.recipebook.model.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RecipeDeleteReport {
+    long recipes;
+    long ingredientRows;
+}
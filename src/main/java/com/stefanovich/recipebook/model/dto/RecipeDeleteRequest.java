@@ -0,0 +1,32 @@
+package com.stefanovich.recipebook.model.dto;
+
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Selects the recipes of a bulk delete, either by ID or with the criteria of the recipe filter.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RecipeDeleteRequest {
+    List<Integer> ids;
+    Filter filter;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Filter {
+        Boolean vegetarian;
+        Integer servings;
+        List<String> includeIngredients;
+        IngredientMatchMode matchMode;
+        List<String> excludeIngredients;
+        String searchText;
+    }
+}
@@ -0,0 +1,31 @@
+package com.stefanovich.recipebook.model.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RecipeImportReport {
+    long imported;
+    long failed;
+    double recipesPerSecond;
+    /**
+     * Per-line errors, truncated to the first errors when there are too many to report.
+     */
+    List<LineError> errors = new ArrayList<>();
+    boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class LineError {
+        long line;
+        String message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.stefanovich.recipebook.model.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RecipePage {
+    List<RecipeDTO> items = new ArrayList<>();
+    /**
+     * Opaque cursor of the next page, or null if this is the last page.
+     */
+    String next;
+}
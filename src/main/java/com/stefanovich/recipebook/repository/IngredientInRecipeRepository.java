@@ -2,6 +2,14 @@ package com.stefanovich.recipebook.repository;
 
 import com.stefanovich.recipebook.model.IngredientInRecipe;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface IngredientInRecipeRepository extends JpaRepository<IngredientInRecipe, Integer> {
+
+    @Query("select i from IngredientInRecipe i join fetch i.ingredient where i.recipe.id in :recipeIds order by i.id")
+    List<IngredientInRecipe> findAllWithIngredientByRecipeIdIn(@Param("recipeIds") Collection<Integer> recipeIds);
 }
@@ -1,10 +1,40 @@
 package com.stefanovich.recipebook.repository;
 
 import com.stefanovich.recipebook.model.Ingredient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 public interface IngredientRepository  extends JpaRepository<Ingredient, Integer> {
-    Optional<Ingredient> findByName(String name);
+    /**
+     * Looks up ingredients by their normalized names. Results are kept in the query cache until ingredients are inserted.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "ingredient-by-name")
+    })
+    @Query("select i from Ingredient i where lower(i.name) in :names")
+    List<Ingredient> findAllByNormalizedNameIn(@Param("names") Collection<String> names);
+
+    /**
+     * Looks up ingredients by their normalized names, bypassing the query cache: the cached results may still
+     * miss ingredients a concurrent transaction has just inserted.
+     */
+    @Query("select i from Ingredient i where lower(i.name) in :names")
+    List<Ingredient> findAllByNormalizedNameInUncached(@Param("names") Collection<String> names);
+
+    /**
+     * Inserts the given ingredient names, skipping names that already exist (compared by the
+     * normalized name index), and returns only the rows this statement inserted.
+     * The names are bound as one array parameter: a collection would be expanded into a row value.
+     */
+    @Query(value = "INSERT INTO ingredient (name) SELECT unnest(CAST(:names AS text[])) " +
+            "ON CONFLICT ((lower(name))) DO NOTHING RETURNING *", nativeQuery = true)
+    List<Ingredient> insertMissing(@Param("names") String[] names);
 }
@@ -2,10 +2,41 @@ package com.stefanovich.recipebook.repository;
 
 import com.stefanovich.recipebook.model.Recipe;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
-}
 
+    /**
+     * Loads the next page of recipes after the given id, ordered by id, together with their ingredients.
+     * The page is selected in a subquery so the limit applies to recipes and not to the joined rows.
+     */
+    @Query("select r from Recipe r left join fetch r.ingredients i left join fetch i.ingredient " +
+            "where r.id in (select p.id from Recipe p where p.id > :afterId order by p.id limit :limit) " +
+            "order by r.id")
+    List<Recipe> findPageWithIngredients(@Param("afterId") Integer afterId, @Param("limit") int limit);
 
+    /**
+     * Loads the given recipes, ordered by id, together with their ingredients.
+     */
+    @Query("select r from Recipe r left join fetch r.ingredients i left join fetch i.ingredient " +
+            "where r.id in :ids order by r.id")
+    List<Recipe> findAllWithIngredientsByIdIn(@Param("ids") Collection<Integer> ids);
 
+    /**
+     * Loads a recipe together with its ingredients.
+     */
+    @Query("select r from Recipe r left join fetch r.ingredients i left join fetch i.ingredient where r.id = :id")
+    Optional<Recipe> findWithIngredientsById(@Param("id") Integer id);
+
+    /**
+     * Reads only the version of a recipe.
+     */
+    @Query("select r.version from Recipe r where r.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Integer id);
+}
@@ -0,0 +1,82 @@
+package com.stefanovich.recipebook.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stefanovich.recipebook.model.Ingredient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-process cache of normalized ingredient names to ingredient ids (and display names).
+ * Hit, miss and eviction counters are published as the "ingredients" cache meters.
+ */
+@Component
+public class IngredientCache {
+
+    private final Cache<String, Entry> cache;
+
+    public IngredientCache(@Value("${recipebook.ingredient-cache.maximum-size:10000}") long maximumSize,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ingredients");
+    }
+
+    /**
+     * Retrieves a cached ingredient.
+     *
+     * @param normalizedName The normalized name of the ingredient.
+     * @return A detached ingredient carrying the cached id, or null on a miss.
+     */
+    public Ingredient get(String normalizedName) {
+        Entry entry = cache.getIfPresent(normalizedName);
+        if (entry == null) {
+            return null;
+        }
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(entry.id());
+        ingredient.setName(entry.name());
+        return ingredient;
+    }
+
+    /**
+     * Caches the given ingredients once the current transaction commits.
+     * If the transaction rolls back, the entries are invalidated instead, so an id that caused
+     * the failure (e.g. an ingredient deleted in the meantime) is looked up again next time.
+     *
+     * @param ingredients The ingredients used by the current transaction.
+     */
+    public void putAfterCommit(Collection<Ingredient> ingredients) {
+        Map<String, Entry> entries = new HashMap<>();
+        for (Ingredient ingredient : ingredients) {
+            entries.put(IngredientResolver.normalize(ingredient.getName()), new Entry(ingredient.getId(), ingredient.getName()));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.putAll(entries);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    cache.putAll(entries);
+                } else {
+                    cache.invalidateAll(entries.keySet());
+                }
+            }
+        });
+    }
+
+    private record Entry(Integer id, String name) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.repository.IngredientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+@Component
+@RequiredArgsConstructor
+public class IngredientResolver {
+
+    private final IngredientRepository ingredientRepository;
+    private final IngredientCache ingredientCache;
+    private final SecondLevelCache secondLevelCache;
+
+    /**
+     * Resolves ingredient names to ingredients, creating the ones that do not exist yet.
+     * Names are served from the {@link IngredientCache} first; the rest are looked up with a single
+     * IN query and missing names are created with a single INSERT ... ON CONFLICT DO NOTHING,
+     * so concurrent requests never create duplicates.
+     * Ingredients returned from the cache are detached and only meant to be referenced.
+     *
+     * @param names The ingredient names to resolve.
+     * @return A map of normalized ingredient names to ingredients.
+     */
+    public Map<String, Ingredient> resolve(Collection<String> names) {
+        Map<String, String> requested = new LinkedHashMap<>();
+        for (String name : names) {
+            requested.putIfAbsent(normalize(name), name.trim());
+        }
+
+        Map<String, Ingredient> resolved = new HashMap<>();
+        for (String normalized : requested.keySet()) {
+            Ingredient cached = ingredientCache.get(normalized);
+            if (cached != null) {
+                resolved.put(normalized, cached);
+            }
+        }
+        if (resolved.size() < requested.size()) {
+            lookup(requested, resolved);
+        }
+        ingredientCache.putAfterCommit(resolved.values());
+        return resolved;
+    }
+
+    private void lookup(Map<String, String> requested, Map<String, Ingredient> resolved) {
+        List<String> uncached = missingNames(requested, resolved);
+        putAll(resolved, ingredientRepository.findAllByNormalizedNameIn(normalizeAll(uncached)));
+
+        List<String> missing = missingNames(requested, resolved);
+        if (!missing.isEmpty()) {
+            List<Ingredient> inserted = ingredientRepository.insertMissing(missing.toArray(String[]::new));
+            if (!inserted.isEmpty()) {
+                secondLevelCache.evictIngredientNameQueriesAfterCompletion();
+            }
+            putAll(resolved, inserted);
+            // Names that conflicted were inserted by a concurrent transaction after our lookup
+            List<String> conflicted = missingNames(requested, resolved);
+            if (!conflicted.isEmpty()) {
+                putAll(resolved, ingredientRepository.findAllByNormalizedNameInUncached(normalizeAll(conflicted)));
+            }
+        }
+    }
+
+    /**
+     * Normalizes an ingredient name the same way as the unique index on the ingredient table.
+     *
+     * @param name The ingredient name to normalize.
+     * @return The normalized ingredient name.
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> normalizeAll(Collection<String> names) {
+        return names.stream().map(IngredientResolver::normalize).toList();
+    }
+
+    private static List<String> missingNames(Map<String, String> requested, Map<String, Ingredient> resolved) {
+        List<String> missing = new ArrayList<>();
+        requested.forEach((normalized, name) -> {
+            if (!resolved.containsKey(normalized)) {
+                missing.add(name);
+            }
+        });
+        return missing;
+    }
+
+    private static void putAll(Map<String, Ingredient> resolved, List<Ingredient> ingredients) {
+        for (Ingredient ingredient : ingredients) {
+            resolved.put(normalize(ingredient.getName()), ingredient);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.exception.RecipeNotFoundException;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+
+/**
+ * Non-blocking read access to recipes over R2DBC, against the same schema as {@link RecipeService}.
+ * Recipes are streamed in pages: the ingredients of every page are loaded with one query, and the next
+ * page is only read once the subscriber has requested the recipes of the previous one.
+ */
+@Service
+public class ReactiveRecipeService {
+    private static final String RECIPE_COLUMNS =
+            "r.id, r.name, r.instructions, r.preparation_time, r.servings, r.difficulty, r.vegetarian, r.version";
+
+    private final DatabaseClient databaseClient;
+    private final int pageSize;
+
+    public ReactiveRecipeService(DatabaseClient databaseClient,
+                                 @Value("${recipebook.r2dbc.page-size:200}") int pageSize) {
+        this.databaseClient = databaseClient;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Retrieves a recipe with its ingredients.
+     *
+     * @param recipeId The ID of the recipe to retrieve.
+     * @return The recipe as a data transfer object, or a {@link RecipeNotFoundException} error.
+     */
+    public Mono<RecipeDTO> getRecipe(Integer recipeId) {
+        return databaseClient.sql("SELECT " + RECIPE_COLUMNS + " FROM recipe r WHERE r.id = :id")
+                .bind("id", recipeId)
+                .map(ReactiveRecipeService::toRecipe)
+                .all()
+                .collectList()
+                .flatMapMany(this::withIngredients)
+                .next()
+                .switchIfEmpty(Mono.error(() -> new RecipeNotFoundException("Not found recipe with id - " + recipeId)));
+    }
+
+    /**
+     * Applies the default and the maximum size of a v1 page to a requested number of recipes, for responses
+     * that are collected into a list before they are written.
+     *
+     * @param limit The requested number of recipes, or null for the default.
+     * @return The number of recipes to return, between 1 and the maximum page size.
+     */
+    public static int boundedLimit(Integer limit) {
+        return RecipeService.pageSize(limit);
+    }
+
+    /**
+     * Streams recipes ordered by id, one keyset page of recipes and one ingredient query at a time.
+     *
+     * @param cursor The cursor of a v1 recipe page to start after, or null to start with the first recipe.
+     * @param limit  The maximum number of recipes to stream, or null for all of them.
+     * @return The recipes as data transfer objects.
+     */
+    public Flux<RecipeDTO> streamRecipes(String cursor, Integer limit) {
+        int afterId = cursor == null || cursor.isEmpty() ? 0 : RecipeCursor.decode(cursor);
+        Flux<RecipeDTO> recipes = readPage(afterId)
+                .expand(page -> page.size() < pageSize ? Mono.empty() : readPage(page.get(page.size() - 1).getId()))
+                .concatMap(this::withIngredients, 1);
+        return limit == null ? recipes : recipes.take(Math.max(limit, 0), true);
+    }
+
+    private Mono<List<RecipeDTO>> readPage(int afterId) {
+        return databaseClient.sql("SELECT " + RECIPE_COLUMNS + " FROM recipe r WHERE r.id > :afterId ORDER BY r.id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", pageSize)
+                .map(ReactiveRecipeService::toRecipe)
+                .all()
+                .collectList();
+    }
+
+    /**
+     * Filters recipes with the same semantics as {@link RecipeService#filterRecipes}: each matching recipe
+     * once, ingredient names matched case-insensitively, and with a search text the best matches first.
+     * Without a search text, recipes are ordered by id.
+     *
+     * @param vegetarian         Whether the recipes should be vegetarian.
+     * @param servings           The number of servings the recipes should have.
+     * @param includeIngredients The ingredients the recipes should include.
+     * @param matchMode          Whether the recipes should include any or all of the included ingredients, any if null.
+     * @param excludeIngredients The ingredients the recipes should exclude.
+     * @param searchText         The text to search for in the recipes.
+     * @return The matching recipes as data transfer objects.
+     */
+    public Flux<RecipeDTO> filterRecipes(Boolean vegetarian,
+                                         Integer servings,
+                                         List<String> includeIngredients,
+                                         IngredientMatchMode matchMode,
+                                         List<String> excludeIngredients,
+                                         String searchText) {
+        RecipeFilterKey key = RecipeFilterKey.of(vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText);
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(RECIPE_COLUMNS).append(" FROM recipe r WHERE TRUE");
+
+        if (key.vegetarian() != null) {
+            sql.append(" AND r.vegetarian = :vegetarian");
+            parameters.put("vegetarian", key.vegetarian());
+        }
+        if (key.servings() != null) {
+            sql.append(" AND r.servings = :servings");
+            parameters.put("servings", key.servings());
+        }
+        if (!key.includeIngredients().isEmpty()) {
+            // A semi-join on the recipe id, so that a recipe matching several ingredients is returned once
+            sql.append(" AND r.id IN (SELECT iir.recipe_id FROM ingredientinrecipe iir JOIN ingredient i ON i.id = iir.ingredient_id"
+                    + " WHERE lower(i.name) IN (:include)");
+            if (key.matchMode() == IngredientMatchMode.ALL) {
+                sql.append(" GROUP BY iir.recipe_id HAVING count(DISTINCT iir.ingredient_id) = :includeCount");
+                parameters.put("includeCount", (long) key.includeIngredients().size());
+            }
+            sql.append(")");
+            parameters.put("include", key.includeIngredients());
+        }
+        if (!key.excludeIngredients().isEmpty()) {
+            sql.append(" AND NOT EXISTS (SELECT 1 FROM ingredientinrecipe iir JOIN ingredient i ON i.id = iir.ingredient_id"
+                    + " WHERE iir.recipe_id = r.id AND lower(i.name) IN (:exclude))");
+            parameters.put("exclude", key.excludeIngredients());
+        }
+        if (key.searchQuery() != null) {
+            sql.append(" AND r.search_vector @@ to_tsquery('simple', :query)"
+                    + " ORDER BY ts_rank(r.search_vector, to_tsquery('simple', :query)) DESC, r.id");
+            parameters.put("query", key.searchQuery());
+        } else {
+            sql.append(" ORDER BY r.id");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map(ReactiveRecipeService::toRecipe)
+                .all()
+                .buffer(pageSize)
+                .concatMap(this::withIngredients, 1);
+    }
+
+    /**
+     * Loads the ingredients of a page of recipes with a single query.
+     *
+     * @param recipes The recipes of the page.
+     * @return The recipes in the same order, with their ingredients.
+     */
+    private Flux<RecipeDTO> withIngredients(List<RecipeDTO> recipes) {
+        if (recipes.isEmpty()) {
+            return Flux.empty();
+        }
+        Map<Integer, RecipeDTO> byId = new LinkedHashMap<>();
+        for (RecipeDTO recipe : recipes) {
+            byId.put(recipe.getId(), recipe);
+        }
+        return databaseClient.sql("SELECT iir.id, iir.recipe_id, iir.quantity, iir.unit_of_measure, i.id AS ingredient_id, i.name"
+                        + " FROM ingredientinrecipe iir JOIN ingredient i ON i.id = iir.ingredient_id"
+                        + " WHERE iir.recipe_id IN (:recipeIds) ORDER BY iir.id")
+                .bind("recipeIds", byId.keySet())
+                .map(ReactiveRecipeService::toIngredientInRecipe)
+                .all()
+                .doOnNext(ingredient -> byId.get(ingredient.getRecipeId()).getIngredients().add(ingredient))
+                .thenMany(Flux.fromIterable(byId.values()));
+    }
+
+    private static RecipeDTO toRecipe(Readable row) {
+        RecipeDTO recipe = new RecipeDTO();
+        recipe.setId(row.get("id", Integer.class));
+        recipe.setName(row.get("name", String.class));
+        recipe.setInstructions(row.get("instructions", String.class));
+        recipe.setPreparationTime(row.get("preparation_time", Integer.class));
+        recipe.setServings(row.get("servings", Integer.class));
+        recipe.setDifficulty(row.get("difficulty", String.class));
+        recipe.setVegetarian(Boolean.TRUE.equals(row.get("vegetarian", Boolean.class)));
+        recipe.setIngredients(new ArrayList<>());
+        recipe.setVersion(row.get("version", Integer.class));
+        return recipe;
+    }
+
+    private static IngredientInRecipeDTO toIngredientInRecipe(Readable row) {
+        IngredientInRecipeDTO ingredientInRecipe = new IngredientInRecipeDTO();
+        ingredientInRecipe.setId(row.get("id", Integer.class));
+        ingredientInRecipe.setIngredient(new IngredientDTO(row.get("ingredient_id", Integer.class), row.get("name", String.class)));
+        ingredientInRecipe.setRecipeId(row.get("recipe_id", Integer.class));
+        Double quantity = row.get("quantity", Double.class);
+        ingredientInRecipe.setQuantity(quantity == null ? 0 : quantity);
+        ingredientInRecipe.setUnitOfMeasure(row.get("unit_of_measure", String.class));
+        return ingredientInRecipe;
+    }
+}
@@ -0,0 +1,107 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.model.dto.RecipeBatchOperation;
+import com.stefanovich.recipebook.model.dto.RecipeBatchReport;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates and updates many recipes in one request.
+ * Every operation is validated on its own; the valid ones are applied in chunks of
+ * {@code recipebook.batch.chunk-size} operations, each chunk in its own transaction, so a chunk the database
+ * rejects only fails its own operations.
+ */
+@Service
+@Timed(value = "recipebook.service", histogram = true)
+public class RecipeBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeBatchService.class);
+
+    private final RecipeService recipeService;
+    private final RecipeValidator recipeValidator;
+    private final int chunkSize;
+
+    public RecipeBatchService(RecipeService recipeService,
+                              RecipeValidator recipeValidator,
+                              @Value("${recipebook.batch.chunk-size:500}") int chunkSize) {
+        this.recipeService = recipeService;
+        this.recipeValidator = recipeValidator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Applies a batch of create and update operations.
+     *
+     * @param operations The operations; an operation with an id updates that recipe, the others create one.
+     * @return A report with the result of every operation, in the order of the operations.
+     */
+    public RecipeBatchReport apply(List<RecipeBatchOperation> operations) {
+        RecipeBatchReport.ItemResult[] results = new RecipeBatchReport.ItemResult[operations.size()];
+        List<Integer> chunk = new ArrayList<>(Math.min(chunkSize, operations.size()));
+        for (int index = 0; index < operations.size(); index++) {
+            RecipeBatchOperation operation = operations.get(index);
+            String violations = operation.getRecipe() == null
+                    ? "recipe should not be null"
+                    : recipeValidator.validate(operation.getRecipe());
+            if (violations != null) {
+                results[index] = new RecipeBatchReport.ItemResult(index, RecipeBatchReport.Status.INVALID,
+                        operation.getId(), null, violations);
+                continue;
+            }
+            chunk.add(index);
+            if (chunk.size() == chunkSize) {
+                applyChunk(operations, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(operations, chunk, results);
+        }
+
+        RecipeBatchReport report = new RecipeBatchReport();
+        for (RecipeBatchReport.ItemResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> report.setCreated(report.getCreated() + 1);
+                case UPDATED -> report.setUpdated(report.getUpdated() + 1);
+                default -> report.setFailed(report.getFailed() + 1);
+            }
+            report.getItems().add(result);
+        }
+        return report;
+    }
+
+    /**
+     * Applies a chunk of valid operations in one transaction. If the database rejects the chunk,
+     * all of its operations are reported as failed.
+     *
+     * @param operations All operations of the batch.
+     * @param chunk      The indexes of the operations of the chunk.
+     * @param results    The results of the batch, by index.
+     */
+    private void applyChunk(List<RecipeBatchOperation> operations, List<Integer> chunk, RecipeBatchReport.ItemResult[] results) {
+        try {
+            List<RecipeBatchReport.ItemResult> chunkResults = recipeService.applyBatch(chunk.stream().map(operations::get).toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                RecipeBatchReport.ItemResult result = chunkResults.get(i);
+                result.setIndex(chunk.get(i));
+                results[chunk.get(i)] = result;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to apply batch operations {}-{}", chunk.get(0), chunk.get(chunk.size() - 1), e);
+            // a recipe changed by a concurrent update between the version check and the flush
+            RecipeBatchReport.Status status = e instanceof OptimisticLockingFailureException
+                    ? RecipeBatchReport.Status.VERSION_CONFLICT
+                    : RecipeBatchReport.Status.FAILED;
+            for (Integer index : chunk) {
+                results[index] = new RecipeBatchReport.ItemResult(index, status, operations.get(index).getId(), null,
+                        "rejected by the database: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.model.dto.RecipeChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Feed of the committed recipe changes, sent to subscribers as Server-Sent Events.
+ * The changes of a transaction are written to the {@code recipe_change_outbox} table right before it commits,
+ * so they are stored if and only if the transaction commits. After the commit, every change gets the next number
+ * of a database sequence, which is its event id, and is moved to the {@code recipe_change} log; changes left
+ * in the outbox by a crash are moved at the next start. The last {@code recipebook.change-feed.buffer-size}
+ * changes are kept in memory, so that a subscriber reconnecting with {@code Last-Event-ID} gets the changes
+ * it missed; a subscriber that is further behind gets a {@code resync} event and reads the log with
+ * {@link #getChangesSince}.
+ * Changes are numbered and logged by a single thread, in the order of the commits, so every subscriber sees them
+ * in the order of their ids. Every subscriber has its own queue of at most
+ * {@code recipebook.change-feed.subscriber-queue-size} events, written by a sender thread, so neither writers
+ * nor other subscribers wait for a slow subscriber; a subscriber whose queue is full is disconnected and
+ * catches up when it reconnects.
+ */
+@Component
+public class RecipeChangeFeed implements DisposableBean {
+    static final int DEFAULT_CHANGES_LIMIT = 100;
+    static final int MAX_CHANGES_LIMIT = 1000;
+    static final String RESYNC_EVENT = "resync";
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeChangeFeed.class);
+
+    private static final String RESERVE_OUTBOX_IDS_SQL =
+            "SELECT nextval('recipe_change_outbox_id_seq') FROM generate_series(1, ?)";
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO recipe_change_outbox (id, change_type, recipe_id, changed_at) VALUES (?, ?, ?, ?)";
+    private static final String PENDING_OUTBOX_IDS_SQL = "SELECT id FROM recipe_change_outbox ORDER BY id";
+    private static final String RESERVE_SEQUENCES_SQL =
+            "SELECT nextval('recipe_change_sequence_seq') FROM generate_series(1, ?)";
+    private static final String MOVE_SQL = "WITH moved AS (DELETE FROM recipe_change_outbox WHERE id = ? "
+            + "RETURNING change_type, recipe_id, changed_at) "
+            + "INSERT INTO recipe_change (sequence, change_type, recipe_id, changed_at) "
+            + "SELECT ?, change_type, recipe_id, changed_at FROM moved";
+    private static final String LAST_SEQUENCE_SQL = "SELECT coalesce(max(sequence), 0) FROM recipe_change";
+    private static final String CHANGES_SINCE_SQL = "SELECT sequence, change_type, recipe_id, changed_at "
+            + "FROM recipe_change WHERE sequence > ? ORDER BY sequence LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int bufferSize;
+    private final int subscriberQueueSize;
+    private final long emitterTimeoutMillis;
+    private final Executor dispatcher;
+    private final Executor sender;
+
+    // only used by the dispatcher
+    private final Deque<RecipeChange> buffer = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    // the buffer holds every change after this sequence
+    private long bufferedAfter = Long.MAX_VALUE;
+
+    @Autowired
+    public RecipeChangeFeed(JdbcTemplate jdbcTemplate,
+                            @Value("${recipebook.change-feed.buffer-size:1000}") int bufferSize,
+                            @Value("${recipebook.change-feed.subscriber-queue-size:1000}") int subscriberQueueSize,
+                            @Value("${recipebook.change-feed.emitter-timeout:30m}") Duration emitterTimeout) {
+        this(jdbcTemplate, bufferSize, subscriberQueueSize, emitterTimeout,
+                Executors.newSingleThreadExecutor(daemonThreads("recipe-change-feed")),
+                Executors.newCachedThreadPool(daemonThreads("recipe-change-feed-sender")));
+    }
+
+    public RecipeChangeFeed(JdbcTemplate jdbcTemplate, int bufferSize, int subscriberQueueSize, Duration emitterTimeout,
+                            Executor dispatcher, Executor sender) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bufferSize = bufferSize;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.dispatcher = dispatcher;
+        this.sender = sender;
+        dispatcher.execute(() -> {
+            logLeftovers();
+            loadLastSequence();
+        });
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Collects the recipe changes of the current transaction, writes them to the outbox when it is about to commit
+     * and publishes them once it has committed. Changes made outside a transaction are written and published right away.
+     *
+     * @param event The recipe change.
+     */
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<RecipeChangedEvent> events = List.of(event);
+            Instant changedAt = Instant.now();
+            publishLater(events, store(events, changedAt), changedAt);
+            return;
+        }
+        List<RecipeChangedEvent> events = (List<RecipeChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events == null) {
+            events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            List<RecipeChangedEvent> transactionEvents = events;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private Instant changedAt;
+                private List<Long> outboxIds;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // a failure rolls the transaction back, so no change is committed without its outbox row
+                    changedAt = Instant.now();
+                    outboxIds = store(transactionEvents, changedAt);
+                }
+
+                @Override
+                public void afterCommit() {
+                    publishLater(transactionEvents, outboxIds, changedAt);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RecipeChangeFeed.this);
+                }
+            });
+        }
+        events.add(event);
+    }
+
+    /**
+     * Subscribes to the changes committed from now on.
+     *
+     * @param lastEventId The id of the last change the subscriber received, or null to only receive new changes.
+     * @return The emitter sending the changes.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        subscribe(emitter, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Subscribes an emitter to the changes committed from now on.
+     *
+     * @param emitter     The emitter to send the changes to.
+     * @param lastEventId The id of the last change the subscriber received, or null to only receive new changes.
+     */
+    public void subscribe(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onTimeout(emitter::complete);
+        emitter.onCompletion(() -> dispatcher.execute(() -> subscribers.remove(subscriber)));
+        dispatcher.execute(() -> {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            if (!subscriber.isClosed()) {
+                subscribers.add(subscriber);
+            }
+        });
+    }
+
+    /**
+     * Reads the changes after the given sequence from the change log.
+     *
+     * @param since The sequence of the last change the client has seen, 0 for all changes.
+     * @param limit The requested number of changes, or null for the default.
+     * @return The changes in sequence order, without the recipes.
+     */
+    public List<RecipeChange> getChangesSince(long since, Integer limit) {
+        int size = limit == null ? DEFAULT_CHANGES_LIMIT : Math.min(Math.max(limit, 1), MAX_CHANGES_LIMIT);
+        return jdbcTemplate.query(CHANGES_SINCE_SQL, (resultSet, rowNum) -> new RecipeChange(
+                resultSet.getLong("sequence"),
+                RecipeChangedEvent.ChangeType.valueOf(resultSet.getString("change_type")),
+                resultSet.getInt("recipe_id"),
+                resultSet.getTimestamp("changed_at").toInstant(),
+                null), since, size);
+    }
+
+    /**
+     * Writes the changes to the outbox, in the current transaction if there is one.
+     *
+     * @return The ids of the outbox rows, in the order of the changes.
+     */
+    private List<Long> store(List<RecipeChangedEvent> events, Instant changedAt) {
+        List<Long> outboxIds = jdbcTemplate.queryForList(RESERVE_OUTBOX_IDS_SQL, Long.class, events.size());
+        Timestamp timestamp = Timestamp.from(changedAt);
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            RecipeChangedEvent event = events.get(i);
+            rows.add(new Object[]{outboxIds.get(i), event.type().name(), event.recipeId(), timestamp});
+        }
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, rows);
+        return outboxIds;
+    }
+
+    private void publishLater(List<RecipeChangedEvent> events, List<Long> outboxIds, Instant changedAt) {
+        dispatcher.execute(() -> publish(events, outboxIds, changedAt));
+    }
+
+    /**
+     * Moves the changes a crash left in the outbox to the change log. They are not sent, there are no subscribers yet.
+     */
+    private void logLeftovers() {
+        try {
+            List<Long> outboxIds = jdbcTemplate.queryForList(PENDING_OUTBOX_IDS_SQL, Long.class);
+            if (!outboxIds.isEmpty()) {
+                move(outboxIds, reserveSequences(outboxIds.size()));
+                logger.info("Logged {} recipe changes left in the outbox", outboxIds.size());
+            }
+        } catch (DataAccessException e) {
+            logger.error("Could not log the recipe changes left in the outbox", e);
+        }
+    }
+
+    private void loadLastSequence() {
+        try {
+            bufferedAfter = jdbcTemplate.queryForObject(LAST_SEQUENCE_SQL, Long.class);
+        } catch (DataAccessException e) {
+            // every reconnecting subscriber will resync from the change log
+            logger.warn("Could not read the last recipe change: {}", e.getMessage());
+        }
+    }
+
+    private void publish(List<RecipeChangedEvent> events, List<Long> outboxIds, Instant changedAt) {
+        List<Long> sequences;
+        try {
+            sequences = reserveSequences(events.size());
+        } catch (DataAccessException e) {
+            logger.error("Could not number {} recipe changes, they are logged at the next start", events.size(), e);
+            return;
+        }
+        List<RecipeChange> changes = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            RecipeChangedEvent event = events.get(i);
+            changes.add(new RecipeChange(sequences.get(i), event.type(), event.recipeId(), changedAt, event.recipe()));
+        }
+        try {
+            move(outboxIds, sequences);
+        } catch (DataAccessException e) {
+            // still sent to the subscribers, the changes stay in the outbox until the next start
+            logger.error("Could not log {} recipe changes", changes.size(), e);
+        }
+        subscribers.removeIf(Subscriber::isClosed);
+        for (RecipeChange change : changes) {
+            buffer(change);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event(change));
+            }
+        }
+    }
+
+    private List<Long> reserveSequences(int count) {
+        List<Long> sequences = jdbcTemplate.queryForList(RESERVE_SEQUENCES_SQL, Long.class, count);
+        Collections.sort(sequences);
+        return sequences;
+    }
+
+    private void move(List<Long> outboxIds, List<Long> sequences) {
+        List<Object[]> rows = new ArrayList<>(outboxIds.size());
+        for (int i = 0; i < outboxIds.size(); i++) {
+            rows.add(new Object[]{outboxIds.get(i), sequences.get(i)});
+        }
+        jdbcTemplate.batchUpdate(MOVE_SQL, rows);
+    }
+
+    private void buffer(RecipeChange change) {
+        if (bufferedAfter == Long.MAX_VALUE) {
+            bufferedAfter = change.getSequence() - 1;
+        }
+        buffer.addLast(change);
+        if (buffer.size() > bufferSize) {
+            bufferedAfter = buffer.removeFirst().getSequence();
+        }
+    }
+
+    /**
+     * Queues the buffered changes after the last event id, or a resync event if some of them are no longer buffered
+     * or they would not fit in the queue of the subscriber.
+     */
+    private void replay(Subscriber subscriber, long lastEventId) {
+        List<RecipeChange> missed = buffer.stream().filter(change -> change.getSequence() > lastEventId).toList();
+        if (lastEventId < bufferedAfter || missed.size() > subscriberQueueSize) {
+            subscriber.offer(SseEmitter.event().name(RESYNC_EVENT).data(Long.toString(lastEventId)));
+            return;
+        }
+        missed.forEach(change -> subscriber.offer(event(change)));
+    }
+
+    private static SseEmitter.SseEventBuilder event(RecipeChange change) {
+        return SseEmitter.event()
+                .id(Long.toString(change.getSequence()))
+                .data(change, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * An emitter with the events not sent to it yet. At most one sender thread writes to the emitter at a time.
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        // guarded by this
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean sending;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Queues an event and starts sending, unless the queue is full, in which case the emitter is completed:
+         * the client reconnects with the id of the last event it received.
+         */
+        void offer(SseEmitter.SseEventBuilder event) {
+            boolean full;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                full = pending.size() >= subscriberQueueSize;
+                if (full) {
+                    closed = true;
+                    pending.clear();
+                } else {
+                    pending.addLast(event);
+                    if (sending) {
+                        return;
+                    }
+                    sending = true;
+                }
+            }
+            if (full) {
+                logger.debug("Disconnecting a recipe change subscriber that is {} events behind", subscriberQueueSize);
+                emitter.complete();
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                closed = true;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = closed ? null : pending.pollFirst();
+                    if (event == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // the client went away, or the emitter timed out
+                    closed = true;
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+}
@@ -0,0 +1,105 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the lines of a recipe CSV import:
+ * name,instructions,preparationTime,servings,difficulty,vegetarian,ingredients where ingredients is a
+ * list of name:quantity:unit entries separated by ';'. Fields may be quoted, with quotes escaped by doubling them.
+ */
+public final class RecipeCsvParser {
+    private static final int COLUMNS = 7;
+
+    private RecipeCsvParser() {
+    }
+
+    /**
+     * Parses one CSV line into a recipe. The recipe is not validated.
+     *
+     * @param line The CSV line, without its line terminator.
+     * @return The parsed recipe.
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    public static RecipeDTO parse(String line) {
+        List<String> fields = parseFields(line);
+        if (fields.size() != COLUMNS) {
+            throw new IllegalArgumentException("expected " + COLUMNS + " columns but found " + fields.size());
+        }
+        RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setName(fields.get(0));
+        recipeDTO.setInstructions(fields.get(1));
+        recipeDTO.setPreparationTime(parseInteger(fields.get(2), "preparationTime"));
+        recipeDTO.setServings(parseInteger(fields.get(3), "servings"));
+        recipeDTO.setDifficulty(fields.get(4).isEmpty() ? null : fields.get(4));
+        recipeDTO.setVegetarian(Boolean.parseBoolean(fields.get(5)));
+
+        List<IngredientInRecipeDTO> ingredients = new ArrayList<>();
+        for (String entry : fields.get(6).split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":", -1);
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException("ingredient should be name:quantity[:unit] but was " + entry);
+            }
+            IngredientInRecipeDTO ingredientInRecipeDTO = new IngredientInRecipeDTO();
+            ingredientInRecipeDTO.setIngredient(new IngredientDTO(null, parts[0].trim()));
+            try {
+                ingredientInRecipeDTO.setQuantity(Double.parseDouble(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("quantity should be a number but was " + parts[1]);
+            }
+            ingredientInRecipeDTO.setUnitOfMeasure(parts.length == 3 ? parts[2].trim() : null);
+            ingredients.add(ingredientInRecipeDTO);
+        }
+        recipeDTO.setIngredients(ingredients);
+        return recipeDTO;
+    }
+
+    private static Integer parseInteger(String value, String column) {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " should be a number but was " + value);
+        }
+    }
+
+    private static List<String> parseFields(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
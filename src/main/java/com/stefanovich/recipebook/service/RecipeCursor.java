@@ -0,0 +1,46 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of a recipe page into an opaque cursor.
+ */
+public final class RecipeCursor {
+    private static final String PREFIX = "id:";
+
+    private RecipeCursor() {
+    }
+
+    /**
+     * Encodes the id of the last recipe of a page.
+     *
+     * @param lastId The id of the last recipe on the page.
+     * @return The opaque cursor of the next page.
+     */
+    public static String encode(Integer lastId) {
+        byte[] bytes = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(Integer)}.
+     *
+     * @param cursor The opaque cursor.
+     * @return The id after which the next page starts.
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static int decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new InvalidCursorException("Invalid cursor - " + cursor);
+            }
+            return Integer.parseInt(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor - " + cursor);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.stefanovich.recipebook.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Deletes recipes with a single statement, whatever the number of recipes, without loading them. Their ingredient
+ * rows are deleted by the {@code ON DELETE CASCADE} of the foreign key, after the recipes, so the search vector
+ * trigger has no recipe left to refresh.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeDeleter {
+    // locks the recipes first, so that no ingredient row can be added to them before they are deleted
+    private static final String INGREDIENT_ROWS_SQL = "SELECT id FROM ingredientinrecipe WHERE recipe_id IN "
+            + "(SELECT id FROM recipe WHERE id = ANY(?) FOR UPDATE)";
+    private static final String DELETE_RECIPES_SQL = "DELETE FROM recipe WHERE id = ANY(?) RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final SecondLevelCache secondLevelCache;
+
+    /**
+     * Deletes recipes in the current transaction. The persistence context is flushed before and cleared after,
+     * since the statements bypass it; the deleted recipes are evicted from the second-level cache once the
+     * transaction has completed.
+     *
+     * @param recipeIds The IDs of the recipes to delete; IDs of recipes that do not exist are ignored.
+     * @return The IDs of the deleted recipes and the number of deleted ingredient rows.
+     */
+    public Result delete(Collection<Integer> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        entityManager.flush();
+        Integer[] ids = recipeIds.toArray(Integer[]::new);
+        List<Integer> ingredientRowIds = queryIds(INGREDIENT_ROWS_SQL, ids);
+        List<Integer> deletedRecipeIds = queryIds(DELETE_RECIPES_SQL, ids);
+        entityManager.clear();
+        secondLevelCache.evictRecipesAfterCompletion(deletedRecipeIds, ingredientRowIds);
+        return new Result(deletedRecipeIds, ingredientRowIds.size());
+    }
+
+    private List<Integer> queryIds(String sql, Integer[] ids) {
+        return jdbcTemplate.query(sql,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("integer", ids)),
+                (resultSet, rowNum) -> resultSet.getInt(1));
+    }
+
+    /**
+     * @param recipeIds      The IDs of the deleted recipes.
+     * @param ingredientRows The number of deleted ingredient rows.
+     */
+    public record Result(List<Integer> recipeIds, int ingredientRows) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.stefanovich.recipebook.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.stefanovich.recipebook.mapper.RecipeMapper;
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.repository.IngredientInRecipeRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Service
+@Timed(value = "recipebook.service", histogram = true)
+public class RecipeExportService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeExportService.class);
+
+    private final EntityManager entityManager;
+    private final IngredientInRecipeRepository ingredientInRecipeRepository;
+    private final RecipeMapper recipeMapper;
+    private final ObjectWriter recipeWriter;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public RecipeExportService(EntityManager entityManager,
+                               IngredientInRecipeRepository ingredientInRecipeRepository,
+                               RecipeMapper recipeMapper,
+                               ObjectMapper objectMapper,
+                               @Value("${recipebook.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.ingredientInRecipeRepository = ingredientInRecipeRepository;
+        this.recipeMapper = recipeMapper;
+        this.objectMapper = objectMapper;
+        this.recipeWriter = objectMapper.writerFor(RecipeDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every recipe as newline-delimited JSON.
+     * Recipes are read through a forward-only cursor, {@code fetchSize} rows at a time. The ingredients
+     * of each chunk are loaded with one query, the chunk is written and flushed, and the persistence
+     * context is cleared, so memory use does not depend on the size of the table.
+     *
+     * @param outputStream The stream to write the recipes to.
+     * @throws IOException if writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportRecipes(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+
+        long exported = 0;
+        List<Recipe> chunk = new ArrayList<>(fetchSize);
+        try (Stream<Recipe> recipes = entityManager.createQuery("select r from Recipe r order by r.id", Recipe.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<Recipe> iterator = recipes.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == fetchSize || !iterator.hasNext()) {
+                    writeChunk(generator, chunk);
+                    exported += chunk.size();
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        generator.close();
+        logger.info("Exported {} recipes", exported);
+    }
+
+    /**
+     * Writes a chunk of recipes, loading their ingredients with a single query.
+     *
+     * @param generator The generator to write the recipes to.
+     * @param recipes   The recipes of the chunk.
+     * @throws IOException if writing to the stream fails.
+     */
+    private void writeChunk(JsonGenerator generator, List<Recipe> recipes) throws IOException {
+        Map<Integer, List<IngredientInRecipe>> ingredientsByRecipe = new HashMap<>();
+        List<Integer> recipeIds = recipes.stream().map(Recipe::getId).toList();
+        for (IngredientInRecipe ingredientInRecipe : ingredientInRecipeRepository.findAllWithIngredientByRecipeIdIn(recipeIds)) {
+            ingredientsByRecipe.computeIfAbsent(ingredientInRecipe.getRecipe().getId(), id -> new ArrayList<>())
+                    .add(ingredientInRecipe);
+        }
+
+        for (Recipe recipe : recipes) {
+            List<IngredientInRecipe> ingredients = ingredientsByRecipe.getOrDefault(recipe.getId(), List.of());
+            recipeWriter.writeValue(generator, recipeMapper.toDto(recipe, ingredients));
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+}
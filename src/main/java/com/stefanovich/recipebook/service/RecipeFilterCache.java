@@ -0,0 +1,113 @@
+package com.stefanovich.recipebook.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stefanovich.recipebook.configuration.ReadYourWrites;
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.Recipe;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of filter results keyed by {@link RecipeFilterKey}, bounded by both the number of entries and
+ * their estimated size in bytes. Hit, miss and eviction counters are published as the "recipeFilters" cache meters.
+ * <p>
+ * Every recipe write bumps a global generation when its transaction is about to commit and again once it has
+ * completed, and entries are only served for the generation they were computed in. A result computed
+ * concurrently with a write is therefore never served after that write completes. Results are loaded from the
+ * primary even when reads are routed to a replica, for the same reason.
+ * The cached recipes are detached, with their ingredients loaded, and must not be modified.
+ */
+@Component
+public class RecipeFilterCache {
+
+    private final Cache<RecipeFilterKey, Entry> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecipeFilterCache(@Value("${recipebook.filter-cache.maximum-size:1000}") long maximumSize,
+                             @Value("${recipebook.filter-cache.maximum-bytes:67108864}") long maximumBytes,
+                             MeterRegistry meterRegistry) {
+        // Every entry weighs at least its share of the byte budget, so the weight bound also bounds the entry count
+        long minimumWeight = Math.max(1, maximumBytes / Math.max(1, maximumSize));
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((RecipeFilterKey key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, Math.max(minimumWeight, entry.bytes())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recipeFilters");
+    }
+
+    /**
+     * Returns the cached recipes of a filter, computing and caching them on a miss.
+     * Inside a read-write transaction the cache is bypassed, since the transaction may see its own uncommitted writes.
+     *
+     * @param key    The normalized filter.
+     * @param loader Loads the recipes of the filter from the database.
+     * @return The recipes of the filter.
+     */
+    public List<Recipe> get(RecipeFilterKey key, Supplier<List<Recipe>> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        long current = generation.get();
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.generation() == current) {
+            return entry.recipes();
+        }
+        // a lagging replica could return results older than the generation they would be cached for
+        List<Recipe> recipes = List.copyOf(ReadYourWrites.onPrimary(loader));
+        if (generation.get() == current) {
+            cache.put(key, new Entry(current, recipes, key.estimatedBytes() + estimateBytes(recipes)));
+        }
+        return recipes;
+    }
+
+    /**
+     * Stops serving the results computed so far once a recipe write is about to commit.
+     *
+     * @param event The recipe change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void beforeRecipeChangeCommit(RecipeChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Stops serving the results computed while a recipe write was committing (or rolling back).
+     *
+     * @param event The recipe change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void afterRecipeChangeCompletion(RecipeChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    private static long estimateBytes(List<Recipe> recipes) {
+        long bytes = 16 + 8L * recipes.size();
+        for (Recipe recipe : recipes) {
+            bytes += 160 + 2L * length(recipe.getName()) + 2L * length(recipe.getInstructions());
+            for (IngredientInRecipe ingredientInRecipe : recipe.getIngredients()) {
+                bytes += 160 + 2L * length(ingredientInRecipe.getUnitOfMeasure());
+            }
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private record Entry(long generation, List<Recipe> recipes, long bytes) {
+    }
+}
@@ -0,0 +1,297 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.model.Difficulty;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index answering the attribute and ingredient filters of {@link RecipeService#filterRecipes}
+ * with compressed bitmaps of recipe ids: one per ingredient, per difficulty and per servings value,
+ * plus one for vegetarian recipes.
+ * The index is rebuilt from the database at startup and kept up to date from {@link RecipeChangedEvent}s
+ * once their transaction commits. It is disabled unless {@code recipebook.filter-index.enabled} is set.
+ */
+@Component
+public class RecipeFilterIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeFilterIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Bitmaps bitmaps = new Bitmaps();
+    // events received while a rebuild reads the database, applied on top of the rebuilt bitmaps
+    private List<RecipeChangedEvent> pending;
+    private volatile boolean ready;
+
+    public RecipeFilterIndex(JdbcTemplate jdbcTemplate,
+                             @Value("${recipebook.filter-index.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return Whether the index is enabled and has been built.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Builds the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database. Filters keep being answered from the previous bitmaps
+     * until the new ones are complete.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Bitmaps rebuilt = new Bitmaps();
+        jdbcTemplate.query("SELECT id, name FROM ingredient",
+                rs -> {
+                    rebuilt.ingredientIds.put(IngredientResolver.normalize(rs.getString("name")), rs.getInt("id"));
+                });
+        jdbcTemplate.query("SELECT id, vegetarian, difficulty, servings FROM recipe",
+                rs -> {
+                    int servings = rs.getInt("servings");
+                    boolean noServings = rs.wasNull();
+                    rebuilt.add(rs.getInt("id"), new RecipeAttributes(
+                            rs.getBoolean("vegetarian"),
+                            difficulty(rs.getString("difficulty")),
+                            noServings ? null : servings));
+                });
+        jdbcTemplate.query("SELECT recipe_id, ingredient_id FROM ingredientinrecipe",
+                rs -> {
+                    rebuilt.addIngredient(rs.getInt("recipe_id"), rs.getInt("ingredient_id"));
+                });
+        rebuilt.runOptimize();
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(rebuilt::apply);
+            pending = null;
+            bitmaps = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built the recipe filter index with {} recipes and {} ingredients in {} ms",
+                rebuilt.all.getCardinality(), rebuilt.byIngredient.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Applies a recipe change to the index after its transaction commits.
+     *
+     * @param event The recipe change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            bitmaps.apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the recipes matching the given filters. Ingredient names are matched case-insensitively.
+     *
+     * @param vegetarian         Whether the recipes should be vegetarian, or null for any.
+     * @param servings           The number of servings the recipes should have, or null for any.
+     * @param difficulty         The difficulty the recipes should have, or null for any.
+     * @param includeIngredients The ingredients the recipes should include, if any are given.
+     * @param matchMode          Whether the recipes should include any or all of the included ingredients, any if null.
+     * @param excludeIngredients The recipes should include none of these ingredients.
+     * @return The ids of the matching recipes in ascending order.
+     */
+    public int[] filter(Boolean vegetarian,
+                        Integer servings,
+                        Difficulty difficulty,
+                        List<String> includeIngredients,
+                        IngredientMatchMode matchMode,
+                        List<String> excludeIngredients) {
+        lock.readLock().lock();
+        try {
+            return bitmaps.filter(vegetarian, servings, difficulty, includeIngredients, matchMode, excludeIngredients).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param difficulty The name of a difficulty, null for recipes written before it was required.
+     * @return The difficulty, or null if there is none; such recipes are in no difficulty bitmap.
+     */
+    private static Difficulty difficulty(String difficulty) {
+        return difficulty == null ? null : Difficulty.valueOf(difficulty);
+    }
+
+    private record RecipeAttributes(boolean vegetarian, Difficulty difficulty, Integer servings) {
+    }
+
+    private static final class Bitmaps {
+        final RoaringBitmap all = new RoaringBitmap();
+        final RoaringBitmap vegetarian = new RoaringBitmap();
+        final Map<Difficulty, RoaringBitmap> byDifficulty = new EnumMap<>(Difficulty.class);
+        final Map<Integer, RoaringBitmap> byServings = new HashMap<>();
+        final Map<Integer, RoaringBitmap> byIngredient = new HashMap<>();
+        final Map<String, Integer> ingredientIds = new HashMap<>();
+        // what each recipe was indexed under, so that an update or delete can clear exactly those bits
+        final Map<Integer, RecipeAttributes> attributes = new HashMap<>();
+        final Map<Integer, int[]> ingredientsByRecipe = new HashMap<>();
+
+        void add(int recipeId, RecipeAttributes recipe) {
+            all.add(recipeId);
+            if (recipe.vegetarian()) {
+                vegetarian.add(recipeId);
+            }
+            if (recipe.difficulty() != null) {
+                byDifficulty.computeIfAbsent(recipe.difficulty(), d -> new RoaringBitmap()).add(recipeId);
+            }
+            if (recipe.servings() != null) {
+                byServings.computeIfAbsent(recipe.servings(), s -> new RoaringBitmap()).add(recipeId);
+            }
+            attributes.put(recipeId, recipe);
+        }
+
+        void addIngredient(int recipeId, int ingredientId) {
+            byIngredient.computeIfAbsent(ingredientId, i -> new RoaringBitmap()).add(recipeId);
+            int[] ingredients = ingredientsByRecipe.get(recipeId);
+            if (ingredients == null) {
+                ingredientsByRecipe.put(recipeId, new int[]{ingredientId});
+            } else {
+                int[] grown = Arrays.copyOf(ingredients, ingredients.length + 1);
+                grown[ingredients.length] = ingredientId;
+                ingredientsByRecipe.put(recipeId, grown);
+            }
+        }
+
+        void remove(int recipeId) {
+            RecipeAttributes recipe = attributes.remove(recipeId);
+            if (recipe != null) {
+                all.remove(recipeId);
+                vegetarian.remove(recipeId);
+                if (recipe.difficulty() != null) {
+                    byDifficulty.get(recipe.difficulty()).remove(recipeId);
+                }
+                if (recipe.servings() != null) {
+                    byServings.get(recipe.servings()).remove(recipeId);
+                }
+            }
+            int[] ingredients = ingredientsByRecipe.remove(recipeId);
+            if (ingredients != null) {
+                for (int ingredientId : ingredients) {
+                    byIngredient.get(ingredientId).remove(recipeId);
+                }
+            }
+        }
+
+        void apply(RecipeChangedEvent event) {
+            remove(event.recipeId());
+            RecipeDTO recipe = event.recipe();
+            if (recipe == null) {
+                return;
+            }
+            add(recipe.getId(), new RecipeAttributes(
+                    recipe.isVegetarian(), difficulty(recipe.getDifficulty()), recipe.getServings()));
+            for (IngredientInRecipeDTO ingredientInRecipe : recipe.getIngredients()) {
+                Integer ingredientId = ingredientInRecipe.getIngredient().getId();
+                ingredientIds.put(IngredientResolver.normalize(ingredientInRecipe.getIngredient().getName()), ingredientId);
+                addIngredient(recipe.getId(), ingredientId);
+            }
+        }
+
+        RoaringBitmap filter(Boolean vegetarianOnly,
+                             Integer servings,
+                             Difficulty difficulty,
+                             List<String> includeIngredients,
+                             IngredientMatchMode matchMode,
+                             List<String> excludeIngredients) {
+            RoaringBitmap result = all.clone();
+            if (vegetarianOnly != null) {
+                if (vegetarianOnly) {
+                    result.and(vegetarian);
+                } else {
+                    result.andNot(vegetarian);
+                }
+            }
+            if (servings != null) {
+                result.and(byServings.getOrDefault(servings, new RoaringBitmap()));
+            }
+            if (difficulty != null) {
+                result.and(byDifficulty.getOrDefault(difficulty, new RoaringBitmap()));
+            }
+            if (includeIngredients != null && !includeIngredients.isEmpty()) {
+                if (matchMode == IngredientMatchMode.ALL) {
+                    for (String name : includeIngredients) {
+                        result.and(recipesWith(name));
+                    }
+                } else {
+                    result.and(union(includeIngredients));
+                }
+            }
+            if (excludeIngredients != null && !excludeIngredients.isEmpty()) {
+                result.andNot(union(excludeIngredients));
+            }
+            return result;
+        }
+
+        private RoaringBitmap union(List<String> ingredientNames) {
+            List<RoaringBitmap> matching = new ArrayList<>(ingredientNames.size());
+            for (String name : ingredientNames) {
+                matching.add(recipesWith(name));
+            }
+            return RoaringBitmap.or(matching.iterator());
+        }
+
+        private RoaringBitmap recipesWith(String ingredientName) {
+            Integer ingredientId = ingredientIds.get(IngredientResolver.normalize(ingredientName));
+            RoaringBitmap recipes = ingredientId == null ? null : byIngredient.get(ingredientId);
+            return recipes == null ? new RoaringBitmap() : recipes;
+        }
+
+        void runOptimize() {
+            all.runOptimize();
+            vegetarian.runOptimize();
+            byDifficulty.values().forEach(RoaringBitmap::runOptimize);
+            byServings.values().forEach(RoaringBitmap::runOptimize);
+            byIngredient.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+}
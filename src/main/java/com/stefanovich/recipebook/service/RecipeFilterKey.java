@@ -0,0 +1,62 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+
+import java.util.List;
+
+/**
+ * Normalized parameters of a recipe filter. Filters that always return the same recipes have equal keys:
+ * ingredient names are case-folded, deduplicated and sorted, and the search text is reduced to its tsquery.
+ *
+ * @param vegetarian         Whether the recipes should be vegetarian, or null for any.
+ * @param servings           The number of servings, or null for any.
+ * @param includeIngredients The normalized ingredients to include, empty for no restriction.
+ * @param matchMode          Whether any or all of the included ingredients should match.
+ * @param excludeIngredients The normalized ingredients to exclude.
+ * @param searchQuery        The tsquery of the search text, or null for no search.
+ */
+public record RecipeFilterKey(
+        Boolean vegetarian,
+        Integer servings,
+        List<String> includeIngredients,
+        IngredientMatchMode matchMode,
+        List<String> excludeIngredients,
+        String searchQuery
+) {
+
+    public static RecipeFilterKey of(Boolean vegetarian,
+                                     Integer servings,
+                                     List<String> includeIngredients,
+                                     IngredientMatchMode matchMode,
+                                     List<String> excludeIngredients,
+                                     String searchText) {
+        List<String> include = normalize(includeIngredients);
+        // with a single ingredient, or none, both modes return the same recipes
+        IngredientMatchMode mode = matchMode == IngredientMatchMode.ALL && include.size() > 1
+                ? IngredientMatchMode.ALL
+                : IngredientMatchMode.ANY;
+        return new RecipeFilterKey(vegetarian, servings, include, mode, normalize(excludeIngredients),
+                RecipeSearchQuery.toTsQuery(searchText));
+    }
+
+    private static List<String> normalize(List<String> names) {
+        if (names == null) {
+            return List.of();
+        }
+        return names.stream().map(IngredientResolver::normalize).distinct().sorted().toList();
+    }
+
+    /**
+     * @return A rough size of the key in memory, in bytes.
+     */
+    int estimatedBytes() {
+        int bytes = 96 + (searchQuery == null ? 0 : 40 + 2 * searchQuery.length());
+        for (String name : includeIngredients) {
+            bytes += 40 + 2 * name.length();
+        }
+        for (String name : excludeIngredients) {
+            bytes += 40 + 2 * name.length();
+        }
+        return bytes;
+    }
+}
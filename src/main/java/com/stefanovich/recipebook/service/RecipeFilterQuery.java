@@ -0,0 +1,149 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.Recipe;
+import jakarta.persistence.criteria.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the criteria query of a recipe filter. Only needs a {@link CriteriaBuilder}, so query construction
+ * can be measured without a database.
+ */
+public final class RecipeFilterQuery {
+
+    private RecipeFilterQuery() {
+    }
+
+    /**
+     * Builds the query of a filter. The ingredients are fetched with the recipes, and the recipes are ordered
+     * by id, or with a search query the best full-text matches first.
+     *
+     * @param criteriaBuilder The CriteriaBuilder to use to build the query.
+     * @param key             The normalized filter.
+     * @return The criteria query returning the matching recipes.
+     */
+    public static CriteriaQuery<Recipe> build(CriteriaBuilder criteriaBuilder, RecipeFilterKey key) {
+        CriteriaQuery<Recipe> criteriaQuery = criteriaBuilder.createQuery(Recipe.class);
+        Root<Recipe> root = criteriaQuery.from(Recipe.class);
+
+        // Load the ingredients with the recipes, the results outlive the persistence context
+        root.fetch("ingredients", JoinType.LEFT).fetch("ingredient", JoinType.LEFT);
+
+        // Combine all predicates with AND
+        criteriaQuery.where(buildPredicates(criteriaBuilder, criteriaQuery, root, key.vegetarian(), key.servings(),
+                key.includeIngredients(), key.matchMode(), key.excludeIngredients(), key.searchQuery()));
+
+        // Best full-text matches first, otherwise by id like the filter index and the R2DBC filter
+        if (key.searchQuery() != null) {
+            Expression<Float> rank = criteriaBuilder.function("fts_rank", Float.class, root.get("id"), criteriaBuilder.literal(key.searchQuery()));
+            criteriaQuery.orderBy(criteriaBuilder.desc(rank), criteriaBuilder.asc(root.get("id")));
+        } else {
+            criteriaQuery.orderBy(criteriaBuilder.asc(root.get("id")));
+        }
+        return criteriaQuery;
+    }
+
+    /**
+     * Builds a query returning only the IDs of the recipes matching a filter, in no particular order.
+     *
+     * @param criteriaBuilder The CriteriaBuilder to use to build the query.
+     * @param key             The normalized filter.
+     * @return The criteria query returning the IDs of the matching recipes.
+     */
+    public static CriteriaQuery<Integer> buildIds(CriteriaBuilder criteriaBuilder, RecipeFilterKey key) {
+        CriteriaQuery<Integer> criteriaQuery = criteriaBuilder.createQuery(Integer.class);
+        Root<Recipe> root = criteriaQuery.from(Recipe.class);
+        criteriaQuery.select(root.get("id"));
+        criteriaQuery.where(buildPredicates(criteriaBuilder, criteriaQuery, root, key.vegetarian(), key.servings(),
+                key.includeIngredients(), key.matchMode(), key.excludeIngredients(), key.searchQuery()));
+        return criteriaQuery;
+    }
+
+    /**
+     * Builds predicates for a criteria query based on various criteria.
+     *
+     * @param criteriaBuilder    The CriteriaBuilder to use to build the predicates.
+     * @param criteriaQuery      The CriteriaQuery to which the predicates should be added.
+     * @param root               The root of the query.
+     * @param vegetarian         Whether the recipes should be vegetarian.
+     * @param servings           The number of servings the recipes should have.
+     * @param includeIngredients The ingredients the recipes should include.
+     * @param matchMode          Whether the recipes should include any or all of the included ingredients, any if null.
+     * @param excludeIngredients The ingredients the recipes should exclude.
+     * @param searchQuery        The tsquery to match against the recipe names, instructions and ingredient names,
+     *                           or null. Uses the full-text search index.
+     * @return An array of predicates for the criteria query.
+     */
+    public static Predicate[] buildPredicates(
+            CriteriaBuilder criteriaBuilder,
+            CriteriaQuery<?> criteriaQuery,
+            Root<Recipe> root,
+            Boolean vegetarian,
+            Integer servings,
+            List<String> includeIngredients,
+            IngredientMatchMode matchMode,
+            List<String> excludeIngredients,
+            String searchQuery
+    ) {
+        // Create a list to hold the conditions
+        List<Predicate> predicates = new ArrayList<>();
+
+        // Add criteria based on the provided parameters
+        if (vegetarian != null) {
+            predicates.add(criteriaBuilder.equal(root.get("vegetarian"), vegetarian));
+        }
+
+        if (servings != null) {
+            predicates.add(criteriaBuilder.equal(root.get("servings"), servings));
+        }
+
+        if (includeIngredients != null && !includeIngredients.isEmpty()) {
+            // A semi-join on the recipe id, so that a recipe matching several ingredients is returned once
+            List<String> names = normalizeIngredientNames(includeIngredients);
+            Subquery<Integer> sq = criteriaQuery.subquery(Integer.class);
+            Root<IngredientInRecipe> ingredientInRecipe = sq.from(IngredientInRecipe.class);
+            Path<Integer> recipeId = ingredientInRecipe.get("recipe").get("id");
+            Path<String> ingredientName = ingredientInRecipe.get("ingredient").get("name");
+            sq.select(recipeId).where(criteriaBuilder.lower(ingredientName).in(names));
+            if (matchMode == IngredientMatchMode.ALL) {
+                Path<Integer> ingredientId = ingredientInRecipe.get("ingredient").get("id");
+                sq.groupBy(recipeId).having(criteriaBuilder.equal(criteriaBuilder.countDistinct(ingredientId), (long) names.size()));
+            }
+            predicates.add(root.get("id").in(sq));
+        }
+
+        if (excludeIngredients != null && !excludeIngredients.isEmpty()) {
+            Subquery<IngredientInRecipe> sq = criteriaQuery.subquery(IngredientInRecipe.class);
+            Root<IngredientInRecipe> ingredientInRecipe = sq.from(IngredientInRecipe.class);
+            Path<String> ingredientName = ingredientInRecipe.get("ingredient").get("name");
+            sq.select(ingredientInRecipe)
+                    .where(
+                            criteriaBuilder.and(
+                                    criteriaBuilder.equal(ingredientInRecipe.get("recipe"), root),
+                                    criteriaBuilder.lower(ingredientName).in(normalizeIngredientNames(excludeIngredients))
+                            )
+                    );
+            predicates.add(criteriaBuilder.not(criteriaBuilder.exists(sq)));
+        }
+
+        if (searchQuery != null) {
+            Expression<Boolean> matches = criteriaBuilder.function("fts_match", Boolean.class, root.get("id"), criteriaBuilder.literal(searchQuery));
+            predicates.add(criteriaBuilder.isTrue(matches));
+        }
+
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * Normalizes ingredient names the same way as the unique index on the ingredient table.
+     *
+     * @param names The ingredient names to normalize.
+     * @return The distinct normalized names.
+     */
+    private static List<String> normalizeIngredientNames(List<String> names) {
+        return names.stream().map(IngredientResolver::normalize).distinct().toList();
+    }
+}
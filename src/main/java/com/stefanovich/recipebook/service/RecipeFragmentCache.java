@@ -0,0 +1,145 @@
+package com.stefanovich.recipebook.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.mapper.RecipeMapper;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the serialized JSON of single recipes, so that list and filter responses can be assembled from
+ * byte fragments instead of mapping and serializing every recipe again. A recipe has a fragment per view:
+ * its data transfer object, returned by the recipe pages, and its entity, returned by the filter endpoint.
+ * <p>
+ * A fragment is only served for the version of the recipe it was serialized from. Every write increments the
+ * version, so a stale fragment is never served; updated and deleted recipes are also evicted once their
+ * transaction has completed, to free their bytes. For the same reason, recipes read from a lagging replica may
+ * fill the cache: their fragments are only served with recipes of that same version. The cache is bounded by
+ * {@code recipebook.fragment-cache.maximum-bytes}, and its hits and misses are published as
+ * {@code recipebook.fragment-cache.requests} together with the {@code recipebook.fragment-cache.hit-ratio} gauge.
+ */
+@Component
+public class RecipeFragmentCache {
+    // the key, the entry and the array header of a fragment
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    public enum View {
+        DTO,
+        ENTITY
+    }
+
+    private final Cache<Key, Fragment> cache;
+    private final ObjectMapper objectMapper;
+    private final RecipeMapper recipeMapper;
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecipeFragmentCache(ObjectMapper objectMapper,
+                               RecipeMapper recipeMapper,
+                               @Value("${recipebook.fragment-cache.maximum-bytes:67108864}") long maximumBytes,
+                               MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.recipeMapper = recipeMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Fragment fragment) -> ENTRY_OVERHEAD_BYTES + fragment.json().length)
+                .build();
+        this.hits = meterRegistry.counter("recipebook.fragment-cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("recipebook.fragment-cache.requests", "result", "miss");
+        Gauge.builder("recipebook.fragment-cache.hit-ratio", this, RecipeFragmentCache::hitRatio).register(meterRegistry);
+        Gauge.builder("recipebook.fragment-cache.bytes", cache, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the JSON of the data transfer object of a recipe, mapping and serializing it on a miss.
+     *
+     * @param recipe The recipe, with its ingredients loaded.
+     * @return The serialized data transfer object.
+     * @throws JsonProcessingException if the recipe cannot be serialized.
+     */
+    public byte[] getDtoFragment(Recipe recipe) throws JsonProcessingException {
+        return get(recipe.getId(), recipe.getVersion(), View.DTO, () -> recipeMapper.toDto(recipe));
+    }
+
+    /**
+     * Returns the JSON of a recipe data transfer object, serializing it on a miss.
+     *
+     * @param recipeDTO The data transfer object.
+     * @return The serialized data transfer object.
+     * @throws JsonProcessingException if the recipe cannot be serialized.
+     */
+    public byte[] getDtoFragment(RecipeDTO recipeDTO) throws JsonProcessingException {
+        return get(recipeDTO.getId(), recipeDTO.getVersion(), View.DTO, () -> recipeDTO);
+    }
+
+    /**
+     * Returns the JSON of a recipe entity, serializing it on a miss.
+     *
+     * @param recipe The recipe, with its ingredients loaded.
+     * @return The serialized entity.
+     * @throws JsonProcessingException if the recipe cannot be serialized.
+     */
+    public byte[] getEntityFragment(Recipe recipe) throws JsonProcessingException {
+        return get(recipe.getId(), recipe.getVersion(), View.ENTITY, () -> recipe);
+    }
+
+    /**
+     * Evicts the fragments of an updated or deleted recipe once its transaction has completed.
+     *
+     * @param event The recipe change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void afterRecipeChangeCompletion(RecipeChangedEvent event) {
+        if (event.type() != RecipeChangedEvent.ChangeType.CREATED) {
+            cache.invalidateAll(List.of(new Key(event.recipeId(), View.DTO), new Key(event.recipeId(), View.ENTITY)));
+        }
+    }
+
+    /**
+     * @return The share of fragment requests served from the cache, 0 before the first request.
+     */
+    public double hitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    private byte[] get(Integer recipeId, Integer version, View view, Supplier<Object> value) throws JsonProcessingException {
+        if (recipeId == null || version == null) {
+            // not stored yet, nothing to key the fragment by
+            return objectMapper.writeValueAsBytes(value.get());
+        }
+        Key key = new Key(recipeId, view);
+        Fragment fragment = cache.getIfPresent(key);
+        if (fragment != null && fragment.version() == version) {
+            hits.increment();
+            return fragment.json();
+        }
+        misses.increment();
+        byte[] json = objectMapper.writeValueAsBytes(value.get());
+        // a reader of an older version must not replace the fragment of a newer one
+        cache.asMap().merge(key, new Fragment(version, json),
+                (current, loaded) -> current.version() > loaded.version() ? current : loaded);
+        return json;
+    }
+
+    private record Key(int recipeId, View view) {
+    }
+
+    private record Fragment(int version, byte[] json) {
+    }
+}
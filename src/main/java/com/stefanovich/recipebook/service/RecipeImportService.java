@@ -0,0 +1,281 @@
+package com.stefanovich.recipebook.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeImportReport;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports large recipe files.
+ * Lines are parsed and validated in chunks; every valid chunk resolves its ingredient names in bulk
+ * and is written with PostgreSQL COPY (or JDBC batches on other drivers) in its own transaction,
+ * so only one chunk is held in memory at a time.
+ */
+@Service
+@Timed(value = "recipebook.service", histogram = true)
+public class RecipeImportService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+
+    /**
+     * Must match the allocationSize of the id generators on the entities: every sequence value reserves
+     * the block of ids ending with it, exactly like Hibernate's pooled optimizer.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String RECIPE_COLUMNS = "id, name, instructions, preparation_time, servings, difficulty, vegetarian";
+    private static final String INGREDIENT_IN_RECIPE_COLUMNS = "id, ingredient_id, recipe_id, quantity, unit_of_measure";
+
+    public enum Format {
+        /**
+         * One RecipeDTO JSON object per line.
+         */
+        NDJSON,
+        /**
+         * One recipe per line, as parsed by {@link RecipeCsvParser}. A header line is optional.
+         */
+        CSV
+    }
+
+    private final IngredientResolver ingredientResolver;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecipeValidator recipeValidator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final Counter importedRecipes;
+    private final Counter failedRecipes;
+    private final Timer chunkTimer;
+    private final AtomicLong throughput;
+
+    public RecipeImportService(IngredientResolver ingredientResolver,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               RecipeValidator recipeValidator,
+                               ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${recipebook.import.chunk-size:1000}") int chunkSize) {
+        this.ingredientResolver = ingredientResolver;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recipeValidator = recipeValidator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.importedRecipes = meterRegistry.counter("recipebook.import.recipes", "result", "imported");
+        this.failedRecipes = meterRegistry.counter("recipebook.import.recipes", "result", "failed");
+        this.chunkTimer = meterRegistry.timer("recipebook.import.chunk");
+        this.throughput = meterRegistry.gauge("recipebook.import.throughput", new AtomicLong());
+    }
+
+    /**
+     * Imports recipes from a stream.
+     *
+     * @param inputStream The stream of recipes.
+     * @param format      The format of the stream.
+     * @return A report with the number of imported recipes and the errors of every rejected line.
+     * @throws IOException if reading from the stream fails.
+     */
+    public RecipeImportReport importRecipes(InputStream inputStream, Format format) throws IOException {
+        long started = System.nanoTime();
+        RecipeImportReport report = new RecipeImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && line.startsWith("name,"))) {
+                continue;
+            }
+            try {
+                RecipeDTO recipeDTO = format == Format.NDJSON ? objectMapper.readValue(line, RecipeDTO.class) : RecipeCsvParser.parse(line);
+                if (recipeDTO.getIngredients() == null) {
+                    recipeDTO.setIngredients(new ArrayList<>());
+                }
+                String violations = recipeValidator.validate(recipeDTO);
+                if (violations == null) {
+                    chunk.add(new ImportLine(lineNumber, recipeDTO));
+                } else {
+                    addError(report, lineNumber, violations);
+                }
+            } catch (JsonProcessingException e) {
+                addError(report, lineNumber, e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                addError(report, lineNumber, e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        double seconds = Math.max(System.nanoTime() - started, 1) / 1_000_000_000.0;
+        report.setRecipesPerSecond(report.getImported() / seconds);
+        throughput.set(Math.round(report.getRecipesPerSecond()));
+        logger.info("Imported {} recipes ({} failed) in {} s, {} recipes/s",
+                report.getImported(), report.getFailed(), String.format("%.1f", seconds), Math.round(report.getRecipesPerSecond()));
+        return report;
+    }
+
+    /**
+     * Writes a chunk of valid recipes in one transaction. If the database rejects the chunk,
+     * all of its lines are reported as failed.
+     *
+     * @param lines  The lines of the chunk.
+     * @param report The report to update.
+     */
+    private void importChunk(List<ImportLine> lines, RecipeImportReport report) {
+        try {
+            chunkTimer.record(() -> transactionTemplate.executeWithoutResult(status -> writeChunk(lines)));
+            report.setImported(report.getImported() + lines.size());
+            importedRecipes.increment(lines.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to import lines {}-{}", lines.get(0).number(), lines.get(lines.size() - 1).number(), e);
+            for (ImportLine line : lines) {
+                addError(report, line.number(), "rejected by the database: " + e.getMessage());
+            }
+        }
+    }
+
+    private void writeChunk(List<ImportLine> lines) {
+        List<String> names = new ArrayList<>();
+        for (ImportLine line : lines) {
+            for (IngredientInRecipeDTO ingredientInRecipeDTO : line.recipe().getIngredients()) {
+                names.add(ingredientInRecipeDTO.getIngredient().getName());
+            }
+        }
+        Map<String, Ingredient> ingredients = ingredientResolver.resolve(names);
+
+        Iterator<Integer> recipeIds = allocateIds("recipe_id_seq", lines.size());
+        Iterator<Integer> ingredientInRecipeIds = allocateIds("ingredientinrecipe_id_seq", names.size());
+        List<Object[]> recipeRows = new ArrayList<>(lines.size());
+        List<Object[]> ingredientInRecipeRows = new ArrayList<>(names.size());
+        for (ImportLine line : lines) {
+            RecipeDTO recipeDTO = line.recipe();
+            Integer recipeId = recipeIds.next();
+            recipeDTO.setId(recipeId);
+            recipeRows.add(new Object[]{recipeId, recipeDTO.getName(), recipeDTO.getInstructions(), recipeDTO.getPreparationTime(),
+                    recipeDTO.getServings(), recipeDTO.getDifficulty(), recipeDTO.isVegetarian()});
+            for (IngredientInRecipeDTO ingredientInRecipeDTO : recipeDTO.getIngredients()) {
+                Ingredient ingredient = ingredients.get(IngredientResolver.normalize(ingredientInRecipeDTO.getIngredient().getName()));
+                Integer ingredientInRecipeId = ingredientInRecipeIds.next();
+                ingredientInRecipeDTO.setId(ingredientInRecipeId);
+                ingredientInRecipeDTO.setRecipeId(recipeId);
+                ingredientInRecipeDTO.getIngredient().setId(ingredient.getId());
+                ingredientInRecipeRows.add(new Object[]{ingredientInRecipeId, ingredient.getId(), recipeId,
+                        ingredientInRecipeDTO.getQuantity(), ingredientInRecipeDTO.getUnitOfMeasure()});
+            }
+        }
+
+        insertRows("recipe", RECIPE_COLUMNS, recipeRows);
+        insertRows("ingredientinrecipe", INGREDIENT_IN_RECIPE_COLUMNS, ingredientInRecipeRows);
+        for (ImportLine line : lines) {
+            eventPublisher.publishEvent(RecipeChangedEvent.created(line.recipe()));
+        }
+    }
+
+    /**
+     * Reserves ids from a pooled sequence.
+     *
+     * @param sequence The name of the sequence.
+     * @param count    The number of ids to reserve.
+     * @return The reserved ids.
+     */
+    private Iterator<Integer> allocateIds(String sequence, int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            List<Integer> hiValues = jdbcTemplate.queryForList(
+                    "SELECT nextval('" + sequence + "')::int FROM generate_series(1, ?)", Integer.class, blocks);
+            for (Integer hi : hiValues) {
+                for (int id = Math.max(hi - ID_BLOCK_SIZE + 1, 1); id <= hi && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids.iterator();
+    }
+
+    /**
+     * Inserts rows with COPY when running on PostgreSQL, or with a JDBC batch otherwise.
+     */
+    private void insertRows(String table, String columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                String sql = "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)";
+                try {
+                    connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(toCsv(rows)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                String placeholders = String.join(", ", Collections.nCopies(rows.get(0).length, "?"));
+                jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")", rows);
+            }
+            return null;
+        });
+    }
+
+    private static String toCsv(List<Object[]> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 64);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                Object value = row[i];
+                if (value instanceof String text) {
+                    csv.append('"').append(text.replace("\"", "\"\"")).append('"');
+                } else if (value != null) {
+                    csv.append(value);
+                }
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private void addError(RecipeImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        failedRecipes.increment();
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new RecipeImportReport.LineError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private record ImportLine(long number, RecipeDTO recipe) {
+    }
+}
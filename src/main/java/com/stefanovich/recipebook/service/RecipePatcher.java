@@ -0,0 +1,95 @@
+package com.stefanovich.recipebook.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.stefanovich.recipebook.exception.InvalidRecipePatchException;
+import com.stefanovich.recipebook.model.Difficulty;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies JSON Merge Patches (RFC 7396) to recipes.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipePatcher {
+    private static final Set<String> READ_ONLY_FIELDS = Set.of("id", "version");
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Applies a merge patch to a recipe and validates the result like a full update.
+     * Members of the patch replace the members of the recipe, null members reset them, and an
+     * {@code ingredients} member replaces the whole ingredient list.
+     *
+     * @param recipe The current recipe.
+     * @param patch  The merge patch.
+     * @return The patched recipe.
+     * @throws InvalidRecipePatchException  if the patch is not an object, changes a read-only field or has values of the wrong type.
+     * @throws ConstraintViolationException if the patched recipe is not valid.
+     */
+    public RecipeDTO apply(RecipeDTO recipe, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidRecipePatchException("A recipe patch must be a JSON object");
+        }
+        for (String field : READ_ONLY_FIELDS) {
+            if (patch.has(field) && !patch.get(field).equals(objectMapper.valueToTree(readOnlyValue(recipe, field)))) {
+                throw new InvalidRecipePatchException("The " + field + " of a recipe cannot be patched");
+            }
+        }
+
+        JsonNode target = merge(objectMapper.valueToTree(recipe), patch);
+        RecipeDTO patched;
+        try {
+            patched = objectMapper.treeToValue(target, RecipeDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRecipePatchException("Invalid recipe patch: " + e.getOriginalMessage());
+        }
+
+        Set<ConstraintViolation<RecipeDTO>> violations = validator.validate(patched);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        if (Arrays.stream(Difficulty.values()).noneMatch(d -> d.name().equals(patched.getDifficulty()))) {
+            throw new InvalidRecipePatchException("difficulty should be one of " + Arrays.toString(Difficulty.values()));
+        }
+        return patched;
+    }
+
+    private static Object readOnlyValue(RecipeDTO recipe, String field) {
+        return field.equals("id") ? recipe.getId() : recipe.getVersion();
+    }
+
+    /**
+     * The MergePatch function of RFC 7396.
+     */
+    private static JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject() ? (ObjectNode) target : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), merge(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+}
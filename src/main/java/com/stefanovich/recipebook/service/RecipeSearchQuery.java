@@ -0,0 +1,34 @@
+package com.stefanovich.recipebook.service;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Turns free search text into a PostgreSQL tsquery with prefix matching.
+ */
+public final class RecipeSearchQuery {
+
+    private RecipeSearchQuery() {
+    }
+
+    /**
+     * Converts search text to a tsquery that matches recipes containing every word, where the last
+     * characters of a word may be missing (e.g. "salm ov" matches "salmon in oven").
+     * Only letters and digits are kept, so the result is always a valid tsquery.
+     *
+     * @param searchText The text to search for.
+     * @return The tsquery, or null if the text contains no words.
+     */
+    public static String toTsQuery(String searchText) {
+        if (searchText == null) {
+            return null;
+        }
+        StringJoiner query = new StringJoiner(" & ");
+        for (String word : searchText.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                query.add(word + ":*");
+            }
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+}
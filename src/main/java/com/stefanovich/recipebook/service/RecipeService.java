@@ -1,45 +1,74 @@
 package com.stefanovich.recipebook.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.exception.InvalidRecipeDeleteRequestException;
 import com.stefanovich.recipebook.exception.RecipeNotFoundException;
+import com.stefanovich.recipebook.exception.RecipeVersionConflictException;
+import com.stefanovich.recipebook.mapper.RecipeDtoList;
+import com.stefanovich.recipebook.mapper.RecipeMapper;
 import com.stefanovich.recipebook.model.Difficulty;
 import com.stefanovich.recipebook.model.Ingredient;
 import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
 import com.stefanovich.recipebook.model.Recipe;
 import com.stefanovich.recipebook.model.dto.IngredientDTO;
 import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeBatchOperation;
+import com.stefanovich.recipebook.model.dto.RecipeBatchReport;
 import com.stefanovich.recipebook.model.dto.RecipeDTO;
-import com.stefanovich.recipebook.repository.IngredientInRecipeRepository;
-import com.stefanovich.recipebook.repository.IngredientRepository;
+import com.stefanovich.recipebook.model.dto.RecipeDeleteReport;
+import com.stefanovich.recipebook.model.dto.RecipeDeleteRequest;
+import com.stefanovich.recipebook.model.dto.RecipePage;
 import com.stefanovich.recipebook.repository.RecipeRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.criteria.*;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaQuery;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
+@Timed(value = "recipebook.service", histogram = true)
 @RequiredArgsConstructor
 public class RecipeService {
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    // keeps the IN list of a filter index lookup well below the bind parameter limit
+    static final int FILTER_LOAD_CHUNK_SIZE = 1000;
 
     private final RecipeRepository recipeRepository;
-    private final IngredientInRecipeRepository ingredientInRecipeRepository;
-    private final IngredientRepository ingredientRepository;
+    private final IngredientResolver ingredientResolver;
+    private final RecipeMapper recipeMapper;
     private final EntityManager entityManager;
+    private final RecipeFilterIndex recipeFilterIndex;
+    private final RecipeFilterCache recipeFilterCache;
+    private final RecipePatcher recipePatcher;
+    private final SecondLevelCache secondLevelCache;
+    private final RecipeDeleter recipeDeleter;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Adds a new recipe to the repository.
+     * The whole recipe graph is built in memory and persisted through cascades, so
+     * recipes, new ingredients and ingredient rows are flushed as batched inserts.
      *
      * @param recipeDTO The data transfer object containing the details of the recipe.
      * @return The added recipe as a data transfer object.
      */
+    @Transactional
     public RecipeDTO addRecipe(RecipeDTO recipeDTO) {
         Recipe recipe = convertDtoToRecipe(recipeDTO);
+        addIngredientsToRecipe(recipe, recipeDTO.getIngredients(), resolveIngredients(recipeDTO.getIngredients()));
         Recipe savedRecipe = recipeRepository.save(recipe);
-        addIngredientsToRecipe(savedRecipe, recipeDTO.getIngredients());
-        return convertToDTO(savedRecipe);
+        RecipeDTO savedRecipeDTO = convertToDTO(savedRecipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.created(savedRecipeDTO));
+        return savedRecipeDTO;
     }
 
     /**
@@ -64,32 +93,29 @@ public class RecipeService {
      *
      * @param recipe                 The recipe to which the ingredients should be added.
      * @param ingredientInRecipeDTOs The ingredients to add.
+     * @param ingredients            The resolved ingredients, by normalized name.
      */
-    private void addIngredientsToRecipe(Recipe recipe, List<IngredientInRecipeDTO> ingredientInRecipeDTOs) {
+    private void addIngredientsToRecipe(Recipe recipe, List<IngredientInRecipeDTO> ingredientInRecipeDTOs,
+                                        Map<String, Ingredient> ingredients) {
         for (IngredientInRecipeDTO ingredientInRecipeDTO : ingredientInRecipeDTOs) {
-            IngredientDTO ingredientDTO = ingredientInRecipeDTO.getIngredient();
-            Ingredient ingredient = getOrCreateIngredient(ingredientDTO);
+            Ingredient ingredient = ingredients.get(IngredientResolver.normalize(ingredientInRecipeDTO.getIngredient().getName()));
             IngredientInRecipe ingredientInRecipe = createIngredientInRecipe(ingredient, recipe, ingredientInRecipeDTO);
-            ingredientInRecipeRepository.save(ingredientInRecipe);
             recipe.getIngredients().add(ingredientInRecipe);
         }
     }
 
     /**
-     * Retrieves an existing ingredient or creates a new one if it doesn't exist.
+     * Retrieves the ingredients referenced by the given ingredient rows, creating the ones that don't exist.
      *
-     * @param ingredientDTO The data transfer object containing the details of the ingredient.
-     * @return The retrieved or newly created ingredient.
+     * @param ingredientInRecipeDTOs The ingredient rows whose ingredients should be resolved.
+     * @return A map of normalized ingredient names to ingredients.
      */
-    private Ingredient getOrCreateIngredient(IngredientDTO ingredientDTO) {
-        Optional<Ingredient> existingIngredient = ingredientRepository.findByName(ingredientDTO.getName());
-        if (existingIngredient.isPresent()) {
-            return existingIngredient.get();
-        } else {
-            Ingredient newIngredient = new Ingredient();
-            newIngredient.setName(ingredientDTO.getName());
-            return ingredientRepository.save(newIngredient);
-        }
+    private Map<String, Ingredient> resolveIngredients(List<IngredientInRecipeDTO> ingredientInRecipeDTOs) {
+        List<String> names = ingredientInRecipeDTOs.stream()
+                .map(IngredientInRecipeDTO::getIngredient)
+                .map(IngredientDTO::getName)
+                .toList();
+        return ingredientResolver.resolve(names);
     }
 
     /**
@@ -116,13 +142,246 @@ public class RecipeService {
      * @param updatedRecipe The data transfer object containing the updated details of the recipe.
      * @return The updated recipe as a data transfer object.
      */
+    @Transactional
     public RecipeDTO updateRecipe(Long recipeId, RecipeDTO updatedRecipe) {
+        return updateRecipe(recipeId, updatedRecipe, null);
+    }
+
+    /**
+     * Updates an existing recipe in the repository if it still has the expected version.
+     * Every update increments the version of the recipe, including updates of its ingredients only.
+     *
+     * @param recipeId        The ID of the recipe to update.
+     * @param updatedRecipe   The data transfer object containing the updated details of the recipe.
+     * @param expectedVersion The version the client last read, or null to update any version.
+     * @return The updated recipe as a data transfer object, with its new version.
+     * @throws RecipeVersionConflictException if the recipe has been changed since the expected version.
+     */
+    @Transactional
+    public RecipeDTO updateRecipe(Long recipeId, RecipeDTO updatedRecipe, Integer expectedVersion) {
         Recipe recipe = getRecipeById(recipeId);
+        Integer previousVersion = recipe.getVersion();
+        checkVersion(recipeId, previousVersion, expectedVersion);
         updateRecipeDetails(recipe, updatedRecipe);
-        Map<String, IngredientInRecipe> existingIngredients = getExistingIngredients(recipe);
-        updateRecipeIngredients(recipe, updatedRecipe, existingIngredients);
+        updateRecipeIngredients(recipe, updatedRecipe.getIngredients());
+        return saveUpdatedRecipe(recipe, previousVersion);
+    }
+
+    /**
+     * Applies a JSON Merge Patch to an existing recipe.
+     * Only the columns that actually change are updated, and an {@code ingredients} member replaces the
+     * ingredients of the recipe through the same difference as a full update.
+     *
+     * @param recipeId        The ID of the recipe to patch.
+     * @param patch           The merge patch.
+     * @param expectedVersion The version the client last read, or null to patch any version.
+     * @return The patched recipe as a data transfer object, with its new version.
+     * @throws RecipeVersionConflictException if the recipe has been changed since the expected version.
+     */
+    @Transactional
+    public RecipeDTO patchRecipe(Long recipeId, JsonNode patch, Integer expectedVersion) {
+        Recipe recipe = getRecipeById(recipeId);
+        Integer previousVersion = recipe.getVersion();
+        checkVersion(recipeId, previousVersion, expectedVersion);
+        RecipeDTO patchedRecipe = recipePatcher.apply(convertToDTO(recipe), patch);
+        updateRecipeDetails(recipe, patchedRecipe);
+        if (patch.has("ingredients")) {
+            updateRecipeIngredients(recipe, patchedRecipe.getIngredients());
+        }
+        return saveUpdatedRecipe(recipe, previousVersion);
+    }
+
+    /**
+     * Applies a chunk of batch operations in one transaction. The recipes to update are loaded with their
+     * ingredients in one query, the ingredient names of the whole chunk are resolved at once and all changes
+     * are flushed together, so the inserts and updates of every recipe are sent as JDBC batches.
+     * Operations on missing recipes, with a stale version or repeating an update of the same recipe
+     * are skipped and reported; the others are applied.
+     *
+     * @param operations The validated operations; an operation with an id updates that recipe, the others create one.
+     * @return The result of every operation in the same order, with the index left to the caller.
+     */
+    @Transactional
+    public List<RecipeBatchReport.ItemResult> applyBatch(List<RecipeBatchOperation> operations) {
+        Map<Integer, Recipe> recipes = new HashMap<>();
+        List<Integer> recipeIds = operations.stream().map(RecipeBatchOperation::getId).filter(Objects::nonNull).toList();
+        if (!recipeIds.isEmpty()) {
+            for (Recipe recipe : recipeRepository.findAllWithIngredientsByIdIn(recipeIds)) {
+                recipes.put(recipe.getId(), recipe);
+            }
+        }
+
+        // Checked before anything is written, so that rejected operations do not create ingredients
+        List<RecipeBatchReport.ItemResult> results = new ArrayList<>(operations.size());
+        Set<Integer> updatedIds = new HashSet<>();
+        List<IngredientInRecipeDTO> ingredientInRecipeDTOs = new ArrayList<>();
+        for (RecipeBatchOperation operation : operations) {
+            RecipeBatchReport.ItemResult rejection = checkBatchOperation(operation, recipes, updatedIds);
+            results.add(rejection);
+            if (rejection == null) {
+                ingredientInRecipeDTOs.addAll(batchIngredients(operation));
+            }
+        }
+        Map<String, Ingredient> ingredients = resolveIngredients(ingredientInRecipeDTOs);
+
+        Recipe[] applied = new Recipe[operations.size()];
+        Integer[] previousVersions = new Integer[operations.size()];
+        for (int i = 0; i < operations.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            RecipeBatchOperation operation = operations.get(i);
+            RecipeDTO recipeDTO = operation.getRecipe();
+            if (operation.getId() == null) {
+                Recipe recipe = convertDtoToRecipe(recipeDTO);
+                addIngredientsToRecipe(recipe, batchIngredients(operation), ingredients);
+                applied[i] = recipeRepository.save(recipe);
+            } else {
+                Recipe recipe = recipes.get(operation.getId());
+                previousVersions[i] = recipe.getVersion();
+                updateRecipeDetails(recipe, recipeDTO);
+                updateRecipeIngredients(recipe, recipeDTO.getIngredients(), newIngredients -> ingredients);
+                applied[i] = recipe;
+            }
+        }
+
+        entityManager.flush();
+        for (int i = 0; i < operations.size(); i++) {
+            if (applied[i] == null) {
+                continue;
+            }
+            boolean created = operations.get(i).getId() == null;
+            if (!created) {
+                forceVersionIncrement(applied[i], previousVersions[i]);
+            }
+            RecipeDTO recipeDTO = convertToDTO(applied[i]);
+            eventPublisher.publishEvent(created ? RecipeChangedEvent.created(recipeDTO) : RecipeChangedEvent.updated(recipeDTO));
+            RecipeBatchReport.Status status = created ? RecipeBatchReport.Status.CREATED : RecipeBatchReport.Status.UPDATED;
+            results.set(i, new RecipeBatchReport.ItemResult(0, status, recipeDTO.getId(), recipeDTO.getVersion(), null));
+        }
+        return results;
+    }
+
+    /**
+     * Checks whether a batch operation can be applied.
+     *
+     * @param operation  The operation.
+     * @param recipes    The recipes to update, by id.
+     * @param updatedIds The ids of the recipes already updated by the batch; the id of the operation is added.
+     * @return The result rejecting the operation, or null if it can be applied.
+     */
+    private RecipeBatchReport.ItemResult checkBatchOperation(RecipeBatchOperation operation, Map<Integer, Recipe> recipes,
+                                                             Set<Integer> updatedIds) {
+        Integer recipeId = operation.getId();
+        if (recipeId == null) {
+            return null;
+        }
+        Recipe recipe = recipes.get(recipeId);
+        if (recipe == null) {
+            return new RecipeBatchReport.ItemResult(0, RecipeBatchReport.Status.NOT_FOUND, recipeId, null,
+                    "Not found recipe with id - " + recipeId);
+        }
+        if (operation.getVersion() != null && !operation.getVersion().equals(recipe.getVersion())) {
+            return new RecipeBatchReport.ItemResult(0, RecipeBatchReport.Status.VERSION_CONFLICT, recipeId, recipe.getVersion(),
+                    "Recipe with id - " + recipeId + " has version " + recipe.getVersion() + ", expected " + operation.getVersion());
+        }
+        if (!updatedIds.add(recipeId)) {
+            return new RecipeBatchReport.ItemResult(0, RecipeBatchReport.Status.INVALID, recipeId, null,
+                    "Recipe with id - " + recipeId + " is updated more than once in the batch");
+        }
+        return null;
+    }
+
+    private static List<IngredientInRecipeDTO> batchIngredients(RecipeBatchOperation operation) {
+        List<IngredientInRecipeDTO> ingredientInRecipeDTOs = operation.getRecipe().getIngredients();
+        return ingredientInRecipeDTOs == null ? List.of() : ingredientInRecipeDTOs;
+    }
+
+    /**
+     * Checks that the client updates the version of a recipe it last read.
+     *
+     * @param recipeId        The ID of the recipe.
+     * @param version         The current version of the recipe.
+     * @param expectedVersion The version the client last read, or null to accept any version.
+     * @throws RecipeVersionConflictException if the versions differ.
+     */
+    private void checkVersion(Long recipeId, Integer version, Integer expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            throw new RecipeVersionConflictException("Recipe with id - " + recipeId + " has version " + version
+                    + ", expected " + expectedVersion);
+        }
+    }
+
+    /**
+     * Saves an updated recipe, increments its version and publishes the change.
+     *
+     * @param recipe          The updated recipe.
+     * @param previousVersion The version of the recipe before the update.
+     * @return The updated recipe as a data transfer object.
+     */
+    private RecipeDTO saveUpdatedRecipe(Recipe recipe, Integer previousVersion) {
         recipeRepository.save(recipe);
-        return convertToDTO(recipe);
+        incrementVersion(recipe, previousVersion);
+        RecipeDTO updatedRecipeDTO = convertToDTO(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.updated(updatedRecipeDTO));
+        return updatedRecipeDTO;
+    }
+
+    /**
+     * Flushes the changes of a recipe and makes sure that its version has been incremented.
+     * Hibernate only increments it when the recipe row itself changes, not when only its ingredient rows do;
+     * the forced increment does not reach the second-level cache, so the cached recipe is evicted.
+     *
+     * @param recipe          The updated recipe.
+     * @param previousVersion The version of the recipe before the update.
+     */
+    private void incrementVersion(Recipe recipe, Integer previousVersion) {
+        entityManager.flush();
+        forceVersionIncrement(recipe, previousVersion);
+    }
+
+    /**
+     * Increments the version of a flushed recipe if the flush has not.
+     *
+     * @param recipe          The updated recipe.
+     * @param previousVersion The version of the recipe before the update.
+     */
+    private void forceVersionIncrement(Recipe recipe, Integer previousVersion) {
+        if (Objects.equals(previousVersion, recipe.getVersion())) {
+            entityManager.lock(recipe, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+            secondLevelCache.evictRecipeAfterCompletion(recipe.getId());
+        }
+    }
+
+    /**
+     * Retrieves a recipe together with its ingredients.
+     * A recipe in the second-level cache is read from it, usually with its ingredients; others are loaded
+     * together with their ingredients in a single query.
+     *
+     * @param recipeId The ID of the recipe to retrieve.
+     * @return The recipe as a data transfer object.
+     * @throws RecipeNotFoundException if no recipe is found with the given ID.
+     */
+    @Transactional(readOnly = true)
+    public RecipeDTO getRecipe(Long recipeId) {
+        Integer id = Math.toIntExact(recipeId);
+        Optional<Recipe> recipe = secondLevelCache.containsRecipe(id)
+                ? Optional.ofNullable(entityManager.find(Recipe.class, id))
+                : recipeRepository.findWithIngredientsById(id);
+        return convertToDTO(recipe.orElseThrow(() -> new RecipeNotFoundException("Not found recipe with id - " + recipeId)));
+    }
+
+    /**
+     * Retrieves the current version of a recipe without loading it.
+     *
+     * @param recipeId The ID of the recipe.
+     * @return The version of the recipe.
+     * @throws RecipeNotFoundException if no recipe is found with the given ID.
+     */
+    @Transactional(readOnly = true)
+    public Integer getRecipeVersion(Long recipeId) {
+        return recipeRepository.findVersionById(Math.toIntExact(recipeId))
+                .orElseThrow(() -> new RecipeNotFoundException("Not found recipe with id - " + recipeId));
     }
 
     /**
@@ -138,7 +397,8 @@ public class RecipeService {
     }
 
     /**
-     * Updates the details of a recipe.
+     * Copies every detail of an updated or patched recipe. Setting a value that did not change does not make the
+     * recipe dirty, so only the changed columns end up in the UPDATE statement.
      *
      * @param recipe        The recipe to update.
      * @param updatedRecipe The data transfer object containing the updated details of the recipe.
@@ -147,52 +407,86 @@ public class RecipeService {
         recipe.setName(updatedRecipe.getName());
         recipe.setInstructions(updatedRecipe.getInstructions());
         recipe.setPreparationTime(updatedRecipe.getPreparationTime());
+        recipe.setServings(updatedRecipe.getServings());
         recipe.setDifficulty(Difficulty.valueOf(updatedRecipe.getDifficulty()));
+        recipe.setVegetarian(updatedRecipe.isVegetarian());
     }
 
     /**
      * Retrieves the existing ingredients of a recipe.
      *
      * @param recipe The recipe whose ingredients should be retrieved.
-     * @return A map of ingredient names to IngredientInRecipe entities.
+     * @return A map of ingredient ids to IngredientInRecipe entities, in the order of the recipe.
      */
-    private Map<String, IngredientInRecipe> getExistingIngredients(Recipe recipe) {
-        Map<String, IngredientInRecipe> existingIngredients = new HashMap<>();
+    private Map<Integer, IngredientInRecipe> getExistingIngredients(Recipe recipe) {
+        Map<Integer, IngredientInRecipe> existingIngredients = new LinkedHashMap<>();
         for (IngredientInRecipe ingredientInRecipe : recipe.getIngredients()) {
-            existingIngredients.put(ingredientInRecipe.getIngredient().getName(), ingredientInRecipe);
+            existingIngredients.putIfAbsent(ingredientInRecipe.getIngredient().getId(), ingredientInRecipe);
         }
         return existingIngredients;
     }
 
     /**
-     * Updates the ingredients of a recipe.
+     * Replaces the ingredients of a recipe with the given ones by applying the difference, keyed by ingredient id:
+     * rows of kept ingredients are updated in place (and only written if their quantity or unit changed),
+     * rows of new ingredients are inserted and rows of dropped ingredients are deleted.
+     * Only names that the recipe does not use yet are resolved.
      *
-     * @param recipe              The recipe whose ingredients should be updated.
-     * @param updatedRecipe       The data transfer object containing the updated details of the recipe.
-     * @param existingIngredients A map of existing ingredient names to IngredientInRecipe entities.
+     * @param recipe                 The recipe whose ingredients should be updated.
+     * @param ingredientInRecipeDTOs The new ingredients of the recipe, or null to keep them unchanged.
      */
-    private void updateRecipeIngredients(Recipe recipe, RecipeDTO updatedRecipe, Map<String, IngredientInRecipe> existingIngredients) {
-        for (IngredientInRecipeDTO ingredientInRecipeDTO : updatedRecipe.getIngredients()) {
-            IngredientDTO ingredientDTO = ingredientInRecipeDTO.getIngredient();
-            Ingredient ingredient = getOrCreateIngredient(ingredientDTO);
+    private void updateRecipeIngredients(Recipe recipe, List<IngredientInRecipeDTO> ingredientInRecipeDTOs) {
+        updateRecipeIngredients(recipe, ingredientInRecipeDTOs, this::resolveIngredients);
+    }
 
-            if (existingIngredients.containsKey(ingredient.getName())) {
-                updateExistingIngredient(existingIngredients, ingredientInRecipeDTO, ingredient);
+    /**
+     * Replaces the ingredients of a recipe with the given ones, resolving the names the recipe does not use yet
+     * with the given resolver.
+     *
+     * @param recipe                 The recipe whose ingredients should be updated.
+     * @param ingredientInRecipeDTOs The new ingredients of the recipe, or null to keep them unchanged.
+     * @param resolver               Resolves the new ingredient rows to ingredients by normalized name.
+     */
+    private void updateRecipeIngredients(Recipe recipe, List<IngredientInRecipeDTO> ingredientInRecipeDTOs,
+                                         Function<List<IngredientInRecipeDTO>, Map<String, Ingredient>> resolver) {
+        if (ingredientInRecipeDTOs == null) {
+            return;
+        }
+        Map<Integer, IngredientInRecipe> existingIngredients = getExistingIngredients(recipe);
+        Map<String, Ingredient> ingredients = new HashMap<>();
+        for (IngredientInRecipe ingredientInRecipe : existingIngredients.values()) {
+            ingredients.put(IngredientResolver.normalize(ingredientInRecipe.getIngredient().getName()), ingredientInRecipe.getIngredient());
+        }
+        List<IngredientInRecipeDTO> newIngredients = ingredientInRecipeDTOs.stream()
+                .filter(dto -> !ingredients.containsKey(IngredientResolver.normalize(dto.getIngredient().getName())))
+                .toList();
+        if (!newIngredients.isEmpty()) {
+            ingredients.putAll(resolver.apply(newIngredients));
+        }
+
+        for (IngredientInRecipeDTO ingredientInRecipeDTO : ingredientInRecipeDTOs) {
+            Ingredient ingredient = ingredients.get(IngredientResolver.normalize(ingredientInRecipeDTO.getIngredient().getName()));
+            IngredientInRecipe existingIngredient = existingIngredients.remove(ingredient.getId());
+            if (existingIngredient != null) {
+                updateExistingIngredient(existingIngredient, ingredientInRecipeDTO);
             } else {
                 addNewIngredient(recipe, ingredientInRecipeDTO, ingredient);
             }
         }
+
+        // Whatever is left was dropped by the client; orphan removal deletes the rows
+        Set<IngredientInRecipe> droppedIngredients = Collections.newSetFromMap(new IdentityHashMap<>());
+        droppedIngredients.addAll(existingIngredients.values());
+        recipe.getIngredients().removeIf(droppedIngredients::contains);
     }
 
     /**
      * Updates an existing ingredient in a recipe.
      *
-     * @param existingIngredients   A map of existing ingredient names to IngredientInRecipe entities.
-     * @param ingredientInRecipeDTO The data transfer object containing the updated details of the ingredient in the recipe.
-     * @param ingredient            The ingredient to update.
+     * @param existingIngredientInRecipe The IngredientInRecipe entity to update.
+     * @param ingredientInRecipeDTO      The data transfer object containing the updated details of the ingredient in the recipe.
      */
-    private void updateExistingIngredient(Map<String, IngredientInRecipe> existingIngredients, IngredientInRecipeDTO ingredientInRecipeDTO, Ingredient ingredient) {
-        IngredientInRecipe existingIngredientInRecipe = existingIngredients.get(ingredient.getName());
+    private void updateExistingIngredient(IngredientInRecipe existingIngredientInRecipe, IngredientInRecipeDTO ingredientInRecipeDTO) {
         existingIngredientInRecipe.setQuantity(ingredientInRecipeDTO.getQuantity());
         existingIngredientInRecipe.setUnitOfMeasure(ingredientInRecipeDTO.getUnitOfMeasure());
     }
@@ -206,132 +500,156 @@ public class RecipeService {
      */
     private void addNewIngredient(Recipe recipe, IngredientInRecipeDTO ingredientInRecipeDTO, Ingredient ingredient) {
         IngredientInRecipe ingredientInRecipe = createIngredientInRecipe(ingredient, recipe, ingredientInRecipeDTO);
-        ingredientInRecipeRepository.save(ingredientInRecipe);
         recipe.getIngredients().add(ingredientInRecipe);
     }
 
     /**
-     * Retrieves all recipes.
+     * Applies the default and the maximum page size to a requested number of recipes.
+     *
+     * @param limit The requested number of recipes, or null for the default page size.
+     * @return The page size, between 1 and {@link #MAX_PAGE_SIZE}.
+     */
+    static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Retrieves a page of recipes ordered by id.
+     * The page is loaded together with its ingredients in a single query, and its size is capped
+     * at {@link #MAX_PAGE_SIZE} regardless of the requested limit.
      *
-     * @return A list of all recipes as data transfer objects.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The requested number of recipes, or null for the default page size.
+     * @return The page of recipes as data transfer objects and the cursor of the next page.
      */
-    public List<RecipeDTO> getAllRecipes() {
-        List<Recipe> recipes = recipeRepository.findAll();
-        return recipes.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public RecipePage getRecipesPage(String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        int afterId = cursor == null || cursor.isEmpty() ? 0 : RecipeCursor.decode(cursor);
+
+        // One extra recipe tells whether there is a next page
+        List<Recipe> recipes = recipeRepository.findPageWithIngredients(afterId, pageSize + 1);
+        boolean hasNext = recipes.size() > pageSize;
+        List<Recipe> page = hasNext ? recipes.subList(0, pageSize) : recipes;
+
+        // mapped lazily, so recipes written from their cached JSON fragment are never mapped
+        List<RecipeDTO> items = new RecipeDtoList(page, recipeMapper);
+        String next = hasNext ? RecipeCursor.encode(page.get(page.size() - 1).getId()) : null;
+        return new RecipePage(items, next);
     }
 
     /**
      * Filters recipes based on various criteria.
+     * Results are served from the {@link RecipeFilterCache} until the next recipe write.
+     * Without a search text, the filters are answered by the {@link RecipeFilterIndex} when it is enabled,
+     * and only the matching recipes are loaded, ordered by id.
      *
      * @param vegetarian         Whether the recipes should be vegetarian.
      * @param servings           The number of servings the recipes should have.
      * @param includeIngredients The ingredients the recipes should include.
+     * @param matchMode          Whether the recipes should include any or all of the included ingredients, any if null.
      * @param excludeIngredients The ingredients the recipes should exclude.
-     * @param searchText         The text to search for in the recipes.
-     * @return A list of recipes that match the given criteria.
+     * @param searchText         The text to search for in the recipes. When present, the best matches come first.
+     * @return A list of recipes that match the given criteria, each recipe once, with their ingredients loaded,
+     * ordered by id unless a search text is given.
      */
+    @Transactional(readOnly = true)
     public List<Recipe> filterRecipes(
             Boolean vegetarian,
             Integer servings,
             List<String> includeIngredients,
+            IngredientMatchMode matchMode,
             List<String> excludeIngredients,
             String searchText
     ) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Recipe> criteriaQuery = criteriaBuilder.createQuery(Recipe.class);
-        Root<Recipe> root = criteriaQuery.from(Recipe.class);
-
-        // Create a list to hold the conditions
-        Predicate[] predicates = buildPredicates(criteriaBuilder, criteriaQuery, root, vegetarian, servings, includeIngredients, excludeIngredients, searchText);
+        RecipeFilterKey key = RecipeFilterKey.of(vegetarian, servings, includeIngredients, matchMode, excludeIngredients, searchText);
+        return recipeFilterCache.get(key, () -> findRecipes(key));
+    }
 
-        // Combine all predicates with AND
-        criteriaQuery.where(predicates);
+    /**
+     * Finds the recipes of a filter in the filter index or the database.
+     *
+     * @param key The normalized filter.
+     * @return The matching recipes with their ingredients.
+     */
+    private List<Recipe> findRecipes(RecipeFilterKey key) {
+        if (key.searchQuery() == null && recipeFilterIndex.isReady()) {
+            int[] recipeIds = recipeFilterIndex.filter(key.vegetarian(), key.servings(), null,
+                    key.includeIngredients(), key.matchMode(), key.excludeIngredients());
+            return loadRecipes(recipeIds);
+        }
 
+        CriteriaQuery<Recipe> criteriaQuery = RecipeFilterQuery.build(entityManager.getCriteriaBuilder(), key);
         return entityManager.createQuery(criteriaQuery).getResultList();
     }
 
     /**
-     * Builds predicates for a criteria query based on various criteria.
+     * Loads recipes together with their ingredients.
      *
-     * @param criteriaBuilder    The CriteriaBuilder to use to build the predicates.
-     * @param criteriaQuery      The CriteriaQuery to which the predicates should be added.
-     * @param root               The root of the query.
-     * @param vegetarian         Whether the recipes should be vegetarian.
-     * @param servings           The number of servings the recipes should have.
-     * @param includeIngredients The ingredients the recipes should include.
-     * @param excludeIngredients The ingredients the recipes should exclude.
-     * @param searchText         The text to search for in the recipes.
-     * @return An array of predicates for the criteria query.
+     * @param recipeIds The IDs of the recipes in ascending order.
+     * @return The recipes in the same order.
      */
-    private Predicate[] buildPredicates(
-            CriteriaBuilder criteriaBuilder,
-            CriteriaQuery<?> criteriaQuery,
-            Root<Recipe> root,
-            Boolean vegetarian,
-            Integer servings,
-            List<String> includeIngredients,
-            List<String> excludeIngredients,
-            String searchText
-    ) {
-        // Create a list to hold the conditions
-        List<Predicate> predicates = new ArrayList<>();
-
-        // Add criteria based on the provided parameters
-        if (vegetarian != null) {
-            predicates.add(criteriaBuilder.equal(root.get("vegetarian"), vegetarian));
+    private List<Recipe> loadRecipes(int[] recipeIds) {
+        List<Recipe> recipes = new ArrayList<>(recipeIds.length);
+        for (int from = 0; from < recipeIds.length; from += FILTER_LOAD_CHUNK_SIZE) {
+            int to = Math.min(from + FILTER_LOAD_CHUNK_SIZE, recipeIds.length);
+            List<Integer> chunk = Arrays.stream(recipeIds, from, to).boxed().toList();
+            recipes.addAll(recipeRepository.findAllWithIngredientsByIdIn(chunk));
         }
+        return recipes;
+    }
 
-        if (servings != null) {
-            predicates.add(criteriaBuilder.equal(root.get("servings"), servings));
+    /**
+     * Deletes a recipe from the repository, without loading it.
+     *
+     * @param recipeId The ID of the recipe to delete.
+     * @throws RecipeNotFoundException if no recipe is found with the given ID.
+     */
+    @Transactional
+    public void deleteRecipe(Long recipeId) {
+        if (delete(List.of(Math.toIntExact(recipeId))).getRecipes() == 0) {
+            throw new RecipeNotFoundException("Not found recipe with id - " + recipeId);
         }
+    }
 
-        if (includeIngredients != null && !includeIngredients.isEmpty()) {
-            Join<Recipe, IngredientInRecipe> ingredientsJoin = root.join("ingredients");
-            Join<IngredientInRecipe, Ingredient> ingredientJoin = ingredientsJoin.join("ingredient");
-            Predicate ingredientPredicate = ingredientJoin.get("name").in(includeIngredients);
-            predicates.add(ingredientPredicate);
+    /**
+     * Deletes the recipes selected by ID or by filter, with one statement for the ingredient rows
+     * and one for the recipes. A filter takes one more query to find the recipes.
+     *
+     * @param request The IDs of the recipes to delete, or the filter selecting them.
+     * @return The number of deleted recipes and ingredient rows.
+     * @throws InvalidRecipeDeleteRequestException if the request has both or neither IDs and a filter,
+     *                                             or a filter without any criteria.
+     */
+    @Transactional
+    public RecipeDeleteReport deleteRecipes(RecipeDeleteRequest request) {
+        if ((request.getIds() == null) == (request.getFilter() == null)) {
+            throw new InvalidRecipeDeleteRequestException("Either ids or a filter must be given");
         }
-
-        if (excludeIngredients != null && !excludeIngredients.isEmpty()) {
-            Subquery<IngredientInRecipe> sq = criteriaQuery.subquery(IngredientInRecipe.class);
-            Root<IngredientInRecipe> ingredientInRecipe = sq.from(IngredientInRecipe.class);
-            sq.select(ingredientInRecipe)
-                    .where(
-                            criteriaBuilder.and(
-                                    criteriaBuilder.equal(ingredientInRecipe.get("recipe"), root),
-                                    ingredientInRecipe.get("ingredient").get("name").in(excludeIngredients)
-                            )
-                    );
-            predicates.add(criteriaBuilder.not(criteriaBuilder.exists(sq)));
+        if (request.getIds() != null) {
+            return delete(request.getIds());
         }
-
-        if (searchText != null && !searchText.isEmpty()) {
-            Predicate namePredicate = criteriaBuilder.like(root.get("name"), "%" + searchText + "%");
-            Predicate instructionsPredicate = criteriaBuilder.like(root.get("instructions"), "%" + searchText + "%");
-            Join<Recipe, IngredientInRecipe> ingredientsJoin = root.join("ingredients");
-            Join<IngredientInRecipe, Ingredient> ingredientJoin = ingredientsJoin.join("ingredient");
-            Predicate ingredientPredicate = criteriaBuilder.like(ingredientJoin.get("name"), "%" + searchText + "%");
-            predicates.add(criteriaBuilder.or(namePredicate, instructionsPredicate, ingredientPredicate));
+        RecipeDeleteRequest.Filter filter = request.getFilter();
+        RecipeFilterKey key = RecipeFilterKey.of(filter.getVegetarian(), filter.getServings(), filter.getIncludeIngredients(),
+                filter.getMatchMode(), filter.getExcludeIngredients(), filter.getSearchText());
+        if (key.equals(RecipeFilterKey.of(null, null, null, null, null, null))) {
+            throw new InvalidRecipeDeleteRequestException("A filter without criteria would delete every recipe");
         }
-
-        return predicates.toArray(new Predicate[0]);
+        return delete(entityManager.createQuery(RecipeFilterQuery.buildIds(entityManager.getCriteriaBuilder(), key)).getResultList());
     }
 
     /**
-     * Deletes a recipe from the repository.
+     * Deletes recipes and publishes a change for each deleted one.
      *
-     * @param recipeId The ID of the recipe to delete.
-     * @throws RecipeNotFoundException if no recipe is found with the given ID.
+     * @param recipeIds The IDs of the recipes to delete.
+     * @return The number of deleted recipes and ingredient rows.
      */
-    public void deleteRecipe(Long recipeId) {
-        // Get the recipe by id
-        Recipe recipeToDelete = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new RecipeNotFoundException("Not found recipe with id - " + recipeId));
-
-        // Delete the recipe
-        recipeRepository.delete(recipeToDelete);
+    private RecipeDeleteReport delete(Collection<Integer> recipeIds) {
+        RecipeDeleter.Result deleted = recipeDeleter.delete(recipeIds);
+        for (Integer recipeId : deleted.recipeIds()) {
+            eventPublisher.publishEvent(RecipeChangedEvent.deleted(recipeId));
+        }
+        return new RecipeDeleteReport(deleted.recipeIds().size(), deleted.ingredientRows());
     }
 
     /**
@@ -341,8 +659,7 @@ public class RecipeService {
      * @return The converted RecipeDTO object.
      */
     private RecipeDTO convertToDTO(Recipe recipe) {
-        ModelMapper modelMapper = new ModelMapper();
-        return modelMapper.map(recipe, RecipeDTO.class);
+        return recipeMapper.toDto(recipe);
     }
 
 }
@@ -0,0 +1,65 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.model.Difficulty;
+import com.stefanovich.recipebook.model.UnitOfMeasure;
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Validates recipes written in bulk, where one invalid recipe must be reported instead of failing the request.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeValidator {
+
+    private final Validator validator;
+
+    /**
+     * Validates a recipe the same way as the recipe endpoints and the entity constraints.
+     * Missing units of measure default to grams.
+     *
+     * @param recipeDTO The recipe to validate.
+     * @return The violations joined into one message, or null if the recipe is valid.
+     */
+    public String validate(RecipeDTO recipeDTO) {
+        List<String> violations = new ArrayList<>();
+        for (ConstraintViolation<RecipeDTO> violation : validator.validate(recipeDTO)) {
+            violations.add(violation.getPropertyPath() + " " + violation.getMessage());
+        }
+        if (recipeDTO.getName() != null && recipeDTO.getName().length() > 100) {
+            violations.add("name should have at most 100 characters");
+        }
+        if (recipeDTO.getPreparationTime() == null) {
+            violations.add("preparationTime should not be null");
+        }
+        if (recipeDTO.getDifficulty() != null && Arrays.stream(Difficulty.values()).noneMatch(d -> d.name().equals(recipeDTO.getDifficulty()))) {
+            violations.add("difficulty should be one of " + Arrays.toString(Difficulty.values()));
+        }
+        List<IngredientInRecipeDTO> ingredients = recipeDTO.getIngredients() == null ? List.of() : recipeDTO.getIngredients();
+        for (IngredientInRecipeDTO ingredientInRecipeDTO : ingredients) {
+            IngredientDTO ingredientDTO = ingredientInRecipeDTO.getIngredient();
+            if (ingredientDTO == null || ingredientDTO.getName() == null || ingredientDTO.getName().isBlank()) {
+                violations.add("ingredient name should not be blank");
+            } else if (ingredientDTO.getName().trim().length() < 2) {
+                violations.add("ingredient name should have at least 2 characters");
+            }
+            if (ingredientInRecipeDTO.getQuantity() < 0) {
+                violations.add("quantity should be at least 0");
+            }
+            if (ingredientInRecipeDTO.getUnitOfMeasure() == null || ingredientInRecipeDTO.getUnitOfMeasure().isBlank()) {
+                ingredientInRecipeDTO.setUnitOfMeasure(UnitOfMeasure.GRAM.getUnit());
+            }
+        }
+        return violations.isEmpty() ? null : violations.stream().sorted().collect(Collectors.joining("; "));
+    }
+}
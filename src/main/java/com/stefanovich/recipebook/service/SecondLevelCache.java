@@ -0,0 +1,85 @@
+package com.stefanovich.recipebook.service;
+
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.Recipe;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+
+/**
+ * Access to the Hibernate second-level cache for the writes Hibernate does not track itself,
+ * such as native inserts and deletes and forced version increments.
+ * Evictions run once the current transaction has completed: evicting earlier would let a concurrent
+ * transaction cache the committed state again before this transaction commits.
+ */
+@Component
+public class SecondLevelCache {
+    private static final String INGREDIENT_BY_NAME_REGION = "ingredient-by-name";
+    private static final String RECIPE_INGREDIENTS_ROLE = Recipe.class.getName() + ".ingredients";
+
+    private final Cache cache;
+
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    /**
+     * @param recipeId The ID of a recipe.
+     * @return Whether the recipe is in the second-level cache.
+     */
+    public boolean containsRecipe(Integer recipeId) {
+        return cache.containsEntity(Recipe.class, recipeId);
+    }
+
+    /**
+     * Evicts a recipe once the current transaction has completed.
+     *
+     * @param recipeId The ID of the recipe.
+     */
+    public void evictRecipeAfterCompletion(Integer recipeId) {
+        afterCompletion(() -> cache.evictEntityData(Recipe.class, recipeId));
+    }
+
+    /**
+     * Evicts deleted recipes, their ingredient lists and their ingredient rows once the current transaction has completed.
+     *
+     * @param recipeIds             The IDs of the deleted recipes.
+     * @param ingredientInRecipeIds The IDs of the deleted ingredient rows.
+     */
+    public void evictRecipesAfterCompletion(Collection<Integer> recipeIds, Collection<Integer> ingredientInRecipeIds) {
+        afterCompletion(() -> {
+            for (Integer recipeId : recipeIds) {
+                cache.evictEntityData(Recipe.class, recipeId);
+                cache.evictCollectionData(RECIPE_INGREDIENTS_ROLE, recipeId);
+            }
+            for (Integer ingredientInRecipeId : ingredientInRecipeIds) {
+                cache.evictEntityData(IngredientInRecipe.class, ingredientInRecipeId);
+            }
+        });
+    }
+
+    /**
+     * Evicts the cached ingredient name lookups once the current transaction has completed,
+     * after ingredients have been inserted behind the back of Hibernate.
+     */
+    public void evictIngredientNameQueriesAfterCompletion() {
+        afterCompletion(() -> cache.evictQueryRegion(INGREDIENT_BY_NAME_REGION));
+    }
+
+    private static void afterCompletion(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.run();
+            }
+        });
+    }
+}
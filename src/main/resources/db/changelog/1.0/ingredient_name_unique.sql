@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+--changeset stefanovich:ingredient_name_unique
+--comment: unique index on the normalized ingredient name
+
+-- Point recipe rows at the oldest ingredient of every duplicated name
+UPDATE IngredientInRecipe iir
+SET ingredient_id = d.keep_id
+FROM (SELECT id, min(id) OVER (PARTITION BY lower(btrim(name))) AS keep_id FROM Ingredient) d
+WHERE iir.ingredient_id = d.id
+  AND d.id <> d.keep_id;
+
+DELETE FROM Ingredient i
+USING Ingredient k
+WHERE lower(btrim(i.name)) = lower(btrim(k.name))
+  AND i.id > k.id;
+
+UPDATE Ingredient SET name = btrim(name) WHERE name <> btrim(name);
+
+CREATE UNIQUE INDEX ingredient_name_key ON Ingredient (lower(name));
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset stefanovich:ingredientinrecipe_cascade
+--comment: ingredient rows are deleted with their recipe, so the search vector trigger finds no recipe left to refresh
+
+ALTER TABLE IngredientInRecipe
+    DROP CONSTRAINT ingredientinrecipe_recipe_id_fkey,
+    ADD CONSTRAINT ingredientinrecipe_recipe_id_fkey FOREIGN KEY (recipe_id) REFERENCES Recipe (id) ON DELETE CASCADE;
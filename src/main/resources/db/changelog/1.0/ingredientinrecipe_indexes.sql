@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset stefanovich:ingredientinrecipe_indexes
+--comment: indexes for the ingredient filters and for loading the ingredients of a recipe
+
+-- include/exclude filters: recipes using any of the given ingredients, answered from the index alone
+CREATE INDEX ingredientinrecipe_ingredient_id_recipe_id_idx ON IngredientInRecipe (ingredient_id, recipe_id);
+
+-- ingredients of a recipe, and the NOT EXISTS of the exclude filter
+CREATE INDEX ingredientinrecipe_recipe_id_idx ON IngredientInRecipe (recipe_id);
@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset stefanovich:pooled_sequences
+--comment: pooled id allocation so Hibernate can batch inserts
+
+-- Hibernate reserves 50 ids per sequence call (allocationSize = 50 on the entities)
+ALTER SEQUENCE recipe_id_seq INCREMENT BY 50;
+ALTER SEQUENCE ingredient_id_seq INCREMENT BY 50;
+ALTER SEQUENCE ingredientinrecipe_id_seq INCREMENT BY 50;
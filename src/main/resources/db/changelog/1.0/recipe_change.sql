@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset stefanovich:recipe_change
+--comment: log of recipe changes, read by clients that fell behind the in-memory change feed
+
+-- the sequence numbers are the SSE event ids of the change feed, reserved before the rows are written
+CREATE SEQUENCE recipe_change_sequence_seq;
+
+-- no foreign key: the changes of deleted recipes stay in the log
+CREATE TABLE recipe_change (
+                               sequence BIGINT PRIMARY KEY,
+                               change_type VARCHAR(16) NOT NULL,
+                               recipe_id INTEGER NOT NULL,
+                               changed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
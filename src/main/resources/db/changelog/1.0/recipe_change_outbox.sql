@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset stefanovich:recipe_change_outbox
+--comment: recipe changes written by the committing transaction, numbered and moved to recipe_change after the commit
+
+CREATE SEQUENCE recipe_change_outbox_id_seq;
+
+CREATE TABLE recipe_change_outbox (
+                                      id BIGINT PRIMARY KEY,
+                                      change_type VARCHAR(16) NOT NULL,
+                                      recipe_id INTEGER NOT NULL,
+                                      changed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,76 @@
+--liquibase formatted sql
+
+--changeset stefanovich:recipe_search_vector splitStatements:false
+--comment: full-text search vector over recipe name, ingredient names and instructions
+
+ALTER TABLE Recipe ADD COLUMN search_vector tsvector;
+
+-- Name ranks above ingredient names, which rank above instructions
+CREATE FUNCTION recipe_search_document(p_recipe_id INTEGER, p_name TEXT, p_instructions TEXT) RETURNS tsvector
+    LANGUAGE sql STABLE AS
+$$
+SELECT setweight(to_tsvector('simple', coalesce(p_name, '')), 'A')
+           || setweight(to_tsvector('simple', coalesce(string_agg(i.name, ' '), '')), 'B')
+           || setweight(to_tsvector('simple', coalesce(p_instructions, '')), 'C')
+FROM IngredientInRecipe iir
+         JOIN Ingredient i ON i.id = iir.ingredient_id
+WHERE iir.recipe_id = p_recipe_id
+$$;
+
+CREATE FUNCTION recipe_search_vector_row() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    NEW.search_vector := recipe_search_document(NEW.id, NEW.name, NEW.instructions);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER recipe_search_vector_row
+    BEFORE INSERT OR UPDATE OF name, instructions
+    ON Recipe
+    FOR EACH ROW
+EXECUTE FUNCTION recipe_search_vector_row();
+
+-- Statement level, so a batched or COPY insert of ingredient rows refreshes every recipe once
+CREATE FUNCTION recipe_search_vector_refresh() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        UPDATE Recipe r
+        SET search_vector = recipe_search_document(r.id, r.name, r.instructions)
+        WHERE r.id IN (SELECT recipe_id FROM changed_rows UNION SELECT recipe_id FROM old_rows);
+    ELSE
+        UPDATE Recipe r
+        SET search_vector = recipe_search_document(r.id, r.name, r.instructions)
+        WHERE r.id IN (SELECT recipe_id FROM changed_rows);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER ingredientinrecipe_search_vector_insert
+    AFTER INSERT
+    ON IngredientInRecipe
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION recipe_search_vector_refresh();
+
+CREATE TRIGGER ingredientinrecipe_search_vector_update
+    AFTER UPDATE
+    ON IngredientInRecipe
+    REFERENCING NEW TABLE AS changed_rows OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION recipe_search_vector_refresh();
+
+CREATE TRIGGER ingredientinrecipe_search_vector_delete
+    AFTER DELETE
+    ON IngredientInRecipe
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION recipe_search_vector_refresh();
+
+UPDATE Recipe SET search_vector = recipe_search_document(id, name, instructions);
+
+CREATE INDEX recipe_search_vector_idx ON Recipe USING GIN (search_vector);
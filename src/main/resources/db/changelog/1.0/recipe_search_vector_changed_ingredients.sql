@@ -0,0 +1,26 @@
+--liquibase formatted sql
+
+--changeset stefanovich:recipe_search_vector_changed_ingredients splitStatements:false
+--comment: only refresh the search vector of recipes whose ingredients changed, not on quantity or unit updates
+
+-- A trigger with transition tables cannot have a column list, so the update filter is applied here
+CREATE OR REPLACE FUNCTION recipe_search_vector_refresh() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        UPDATE Recipe r
+        SET search_vector = recipe_search_document(r.id, r.name, r.instructions)
+        WHERE r.id IN (SELECT unnest(ARRAY[n.recipe_id, o.recipe_id])
+                       FROM changed_rows n
+                                JOIN old_rows o ON o.id = n.id
+                       WHERE n.ingredient_id IS DISTINCT FROM o.ingredient_id
+                          OR n.recipe_id IS DISTINCT FROM o.recipe_id);
+    ELSE
+        UPDATE Recipe r
+        SET search_vector = recipe_search_document(r.id, r.name, r.instructions)
+        WHERE r.id IN (SELECT recipe_id FROM changed_rows);
+    END IF;
+    RETURN NULL;
+END
+$$;
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset stefanovich:recipe_version
+--comment: optimistic locking version of a recipe, also used as its ETag
+
+ALTER TABLE Recipe ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
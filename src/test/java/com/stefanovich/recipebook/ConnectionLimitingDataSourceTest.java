@@ -0,0 +1,46 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.configuration.ConnectionLimitingDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class ConnectionLimitingDataSourceTest {
+
+    @Test
+    public void testConnectionsAreLimited() throws SQLException {
+        DataSource pool = mock(DataSource.class);
+        Connection pooledConnection = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(pooledConnection);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, Duration.ofMillis(50));
+
+        Connection connection = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        connection.close();
+        connection.close();
+        verify(pooledConnection, times(1)).close();
+        assertEquals(1, dataSource.getAvailablePermits());
+        dataSource.getConnection().close();
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testPermitIsReleasedWhenPoolFails() throws SQLException {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, Duration.ofMillis(50));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
@@ -0,0 +1,60 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.repository.IngredientRepository;
+import com.stefanovich.recipebook.service.IngredientCache;
+import com.stefanovich.recipebook.service.IngredientResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional: entries only reach the cache once their transaction commits.
+ */
+@SpringBootTest
+public class IngredientCacheTest {
+
+    @Autowired
+    private IngredientResolver ingredientResolver;
+
+    @Autowired
+    private IngredientCache ingredientCache;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testRolledBackInsertIsNotCached() {
+        String name = "saffron-" + UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ingredientResolver.resolve(List.of(name));
+            assertNull(ingredientCache.get(name));
+            status.setRollbackOnly();
+        });
+
+        assertNull(ingredientCache.get(name));
+        assertTrue(ingredientRepository.findAllByNormalizedNameIn(List.of(name)).isEmpty());
+    }
+
+    @Test
+    public void testCommittedInsertIsCached() {
+        String name = "sumac-" + UUID.randomUUID();
+
+        Ingredient ingredient = transactionTemplate.execute(status -> ingredientResolver.resolve(List.of(name)).get(name));
+
+        assertEquals(ingredient.getId(), ingredientCache.get(name).getId());
+        ingredientRepository.deleteById(ingredient.getId());
+    }
+}
@@ -0,0 +1,61 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.repository.IngredientRepository;
+import com.stefanovich.recipebook.service.IngredientResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+@Transactional
+public class IngredientResolverTest {
+
+    @Autowired
+    private IngredientResolver ingredientResolver;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Test
+    public void testResolveCreatesEveryMissingName() {
+        String suffix = UUID.randomUUID().toString();
+        Ingredient existing = ingredientRepository.insertMissing(new String[]{"thyme-" + suffix}).get(0);
+
+        Map<String, Ingredient> resolved = ingredientResolver.resolve(
+                List.of("Salt-" + suffix, " pepper-" + suffix, "SALT-" + suffix, "Thyme-" + suffix, "garlic-" + suffix));
+
+        assertEquals(4, resolved.size());
+        Ingredient salt = resolved.get("salt-" + suffix);
+        Ingredient pepper = resolved.get("pepper-" + suffix);
+        Ingredient garlic = resolved.get("garlic-" + suffix);
+        assertNotNull(salt);
+        assertNotNull(pepper);
+        assertNotNull(garlic);
+        assertEquals("Salt-" + suffix, salt.getName());
+        assertEquals("pepper-" + suffix, pepper.getName());
+        assertNotEquals(salt.getId(), pepper.getId());
+        assertEquals(existing.getId(), resolved.get("thyme-" + suffix).getId());
+        assertEquals(4, ingredientRepository.findAllByNormalizedNameInUncached(List.copyOf(resolved.keySet())).size());
+    }
+
+    @Test
+    public void testInsertMissingSkipsExistingNames() {
+        String suffix = UUID.randomUUID().toString();
+
+        List<Ingredient> inserted = ingredientRepository.insertMissing(new String[]{"leek-" + suffix, "onion-" + suffix});
+        List<Ingredient> again = ingredientRepository.insertMissing(new String[]{"LEEK-" + suffix, "carrot-" + suffix});
+
+        assertEquals(List.of("leek-" + suffix, "onion-" + suffix), inserted.stream().map(Ingredient::getName).sorted().toList());
+        assertEquals(List.of("carrot-" + suffix), again.stream().map(Ingredient::getName).toList());
+    }
+}
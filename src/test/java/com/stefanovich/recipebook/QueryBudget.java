@@ -0,0 +1,24 @@
+package com.stefanovich.recipebook;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails a test that makes Hibernate prepare more SQL statements than declared.
+ * Only the test method itself is counted, not its setup, so a test performing one request bounds the
+ * statements of that request. Requests of MockMvc run on the test thread and are counted.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    /**
+     * @return The maximum number of SQL statements.
+     */
+    int value();
+}
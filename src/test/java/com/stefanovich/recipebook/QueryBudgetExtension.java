@@ -0,0 +1,32 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.configuration.SqlStatementCounter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Checks the {@link QueryBudget} of a test method against the {@link SqlStatementCounter}.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), SqlStatementCounter.currentCount());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+        if (budget == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+        long statements = SqlStatementCounter.currentCount() - context.getStore(NAMESPACE).remove(context.getUniqueId(), Long.class);
+        if (statements > budget.value()) {
+            throw new AssertionFailedError(context.getDisplayName() + " prepared " + statements
+                    + " SQL statements, over its budget of " + budget.value(), budget.value(), statements);
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.stefanovich.recipebook;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.stefanovich.recipebook.configuration.RecipeProtobufHttpMessageConverter;
+import com.stefanovich.recipebook.exception.RecipeVersionConflictException;
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
 import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipePage;
+import com.stefanovich.recipebook.service.ReactiveRecipeService;
 import com.stefanovich.recipebook.service.RecipeService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -9,21 +17,39 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
+import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
 @SpringBootTest
 @AutoConfigureMockMvc
 public class RecipeApiTest {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
 
     @Autowired
     private MockMvc mockMvc;
@@ -32,6 +58,8 @@ public class RecipeApiTest {
     private ObjectMapper objectMapper;
     @MockBean
     private RecipeService recipeService;
+    @MockBean
+    private ReactiveRecipeService reactiveRecipeService;
 
     @Test
     public void testAddRecipe() throws Exception {
@@ -67,14 +95,145 @@ public class RecipeApiTest {
     }
 
 
+    @Test
+    public void testUpdateRecipeWithStaleIfMatch() throws Exception {
+        RecipeDTO updatedRecipeDTO = new RecipeDTO();
+        updatedRecipeDTO.setName("Updated Recipe");
+        updatedRecipeDTO.setInstructions("Updated Instructions");
+        updatedRecipeDTO.setDifficulty("HARD");
+        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class), eq(2)))
+                .thenThrow(new RecipeVersionConflictException("Recipe with id - 1 has version 3, expected 2"));
+
+        mockMvc.perform(put("/api/v1/recipes/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedRecipeDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void testPatchRecipe() throws Exception {
+        RecipeDTO patchedRecipeDTO = new RecipeDTO();
+        patchedRecipeDTO.setName("Patched Recipe");
+        patchedRecipeDTO.setVersion(4);
+        when(recipeService.patchRecipe(eq(1L), any(JsonNode.class), eq(3))).thenReturn(patchedRecipeDTO);
+
+        mockMvc.perform(patch("/api/v1/recipes/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\": \"Patched Recipe\", \"servings\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.name").value("Patched Recipe"));
+    }
+
+    @Test
+    public void testGetRecipe() throws Exception {
+        RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(1);
+        recipeDTO.setName("Test Recipe");
+        recipeDTO.setVersion(3);
+        when(recipeService.getRecipeVersion(1L)).thenReturn(3);
+        when(recipeService.getRecipe(1L)).thenReturn(recipeDTO);
+
+        mockMvc.perform(get("/api/v1/recipes/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.name").value("Test Recipe"));
+    }
+
+    @Test
+    public void testGetRecipeNotModified() throws Exception {
+        when(recipeService.getRecipeVersion(1L)).thenReturn(3);
+
+        mockMvc.perform(get("/api/v1/recipes/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(recipeService, never()).getRecipe(any());
+    }
+
     @Test
     public void testGetAllRecipes() throws Exception {
+        when(recipeService.getRecipesPage(any(), any())).thenReturn(new RecipePage(new ArrayList<>(), null));
+
         mockMvc.perform(get("/api/v1/recipes")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LINK))
                 .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(0))));
     }
 
+    @Test
+    public void testGetAllRecipesWithNextPage() throws Exception {
+        when(recipeService.getRecipesPage(null, 1)).thenReturn(new RecipePage(List.of(new RecipeDTO()), "next-cursor"));
+
+        mockMvc.perform(get("/api/v1/recipes")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LINK, containsString("cursor=next-cursor")))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void testGetRecipeAsSmile() throws Exception {
+        RecipeDTO recipeDTO = recipe();
+        when(recipeService.getRecipeVersion(1L)).thenReturn(3);
+        when(recipeService.getRecipe(1L)).thenReturn(recipeDTO);
+
+        byte[] body = mockMvc.perform(get("/api/v1/recipes/1")
+                        .accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        assertEquals(recipeDTO, smileMapper.readValue(body, RecipeDTO.class));
+    }
+
+    @Test
+    public void testAddRecipeFromCbor() throws Exception {
+        RecipeDTO recipeDTO = recipe();
+        recipeDTO.setId(null);
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+        mockMvc.perform(post("/api/v1/recipes")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(recipeDTO)))
+                .andExpect(status().isCreated());
+
+        verify(recipeService).addRecipe(recipeDTO);
+    }
+
+    @Test
+    public void testGetAllRecipesAsProtobuf() throws Exception {
+        List<RecipeDTO> recipes = List.of(recipe(), new RecipeDTO());
+        when(recipeService.getRecipesPage(null, null)).thenReturn(new RecipePage(recipes, null));
+
+        byte[] body = mockMvc.perform(get("/api/v1/recipes")
+                        .accept(RecipeProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(RecipeProtobufHttpMessageConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        RecipeProtobufHttpMessageConverter converter = new RecipeProtobufHttpMessageConverter(
+                Jackson2ObjectMapperBuilder.json().factory(new ProtobufFactory()).build());
+        assertEquals(recipes, converter.read(new ParameterizedTypeReference<List<RecipeDTO>>() {
+        }.getType(), null, new MockHttpInputMessage(body)));
+    }
+
+    @Test
+    public void testGetRecipeDefaultsToJson() throws Exception {
+        when(recipeService.getRecipeVersion(1L)).thenReturn(3);
+        when(recipeService.getRecipe(1L)).thenReturn(recipe());
+
+        mockMvc.perform(get("/api/v1/recipes/1")
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     public void testFilterRecipes() throws Exception {
         mockMvc.perform(get("/api/v1/recipes/filter")
@@ -98,4 +257,42 @@ public class RecipeApiTest {
 
         Mockito.verify(recipeService, Mockito.times(1)).deleteRecipe(recipeId);
     }
+
+    @Test
+    public void testGetAllRecipesV2AsJsonIsLimited() throws Exception {
+        when(reactiveRecipeService.streamRecipes(null, 50)).thenReturn(Flux.just(recipe()));
+        when(reactiveRecipeService.streamRecipes(null, 200)).thenReturn(Flux.empty());
+
+        MvcResult result = mockMvc.perform(get("/api/v2/recipes").accept(MediaType.ALL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/api/v2/recipes").param("limit", "100000").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted());
+
+        verify(reactiveRecipeService).streamRecipes(null, 200);
+    }
+
+    @Test
+    public void testGetAllRecipesV2AsNdjsonIsUnbounded() throws Exception {
+        when(reactiveRecipeService.streamRecipes(null, null)).thenReturn(Flux.just(recipe(), recipe()));
+
+        MvcResult result = mockMvc.perform(get("/api/v2/recipes").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        assertEquals(2, result.getResponse().getContentAsString().lines().count());
+    }
+
+    private static RecipeDTO recipe() {
+        IngredientInRecipeDTO ingredientInRecipeDTO = new IngredientInRecipeDTO(2, new IngredientDTO(3, "tomato"), 1, 150.5, "g");
+        return new RecipeDTO(1, "Test Recipe", "Test Instructions", 30, 4, "MEDIUM", true,
+                new ArrayList<>(List.of(ingredientInRecipeDTO)), 3);
+    }
 }
@@ -0,0 +1,132 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.dto.RecipeBatchOperation;
+import com.stefanovich.recipebook.model.dto.RecipeBatchReport;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeBatchService;
+import com.stefanovich.recipebook.service.RecipeService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.stefanovich.recipebook.RecipeFixtures.recipe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class RecipeBatchWriteTest {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeBatchWriteTest.class);
+    private static final int INGREDIENTS = 20;
+    private static final int RECIPES = 20;
+    // keeps the ingredient rows of a batch within one block of ids
+    private static final int BATCH_INGREDIENTS = 2;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeBatchService recipeBatchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testAddRecipeIsWrittenInBatches() {
+        recipeService.addRecipe(recipeWithIngredients(INGREDIENTS));
+        entityManager.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        logger.info("addRecipe with {} new ingredients: {} statements, {} entity inserts",
+                INGREDIENTS, statements, statistics.getEntityInsertCount());
+
+        // one recipe and INGREDIENTS ingredient rows, new ingredients are created by a single native insert
+        assertEquals(1 + INGREDIENTS, statistics.getEntityInsertCount());
+        // one ingredient lookup, one ingredient insert, then a sequence call and a batched insert per table
+        assertTrue(statements <= 8, "too many statements per recipe: " + statements);
+    }
+
+    @Test
+    public void testBatchIsWrittenInBatches() {
+        RecipeDTO existing = recipeService.addRecipe(recipeWithIngredients(3));
+        RecipeDTO stale = recipeService.addRecipe(recipeWithIngredients(3));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<RecipeBatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < RECIPES; i++) {
+            operations.add(new RecipeBatchOperation(null, null, recipeWithIngredients(BATCH_INGREDIENTS)));
+        }
+        RecipeDTO update = recipeWithIngredients(BATCH_INGREDIENTS);
+        update.setName("Updated " + update.getName());
+        update.setServings(6);
+        update.setVegetarian(false);
+        operations.add(new RecipeBatchOperation(existing.getId(), existing.getVersion(), update));
+        operations.add(new RecipeBatchOperation(stale.getId(), stale.getVersion() - 1, recipeWithIngredients(1)));
+        operations.add(new RecipeBatchOperation(Integer.MAX_VALUE, null, recipeWithIngredients(1)));
+        operations.add(new RecipeBatchOperation(null, null, new RecipeDTO()));
+
+        RecipeBatchReport report = recipeBatchService.apply(operations);
+        entityManager.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        logger.info("batch of {} recipes with {} new ingredients each: {} statements, {} entity inserts",
+                RECIPES + 1, BATCH_INGREDIENTS, statements, statistics.getEntityInsertCount());
+
+        assertEquals(RECIPES, report.getCreated());
+        assertEquals(1, report.getUpdated());
+        assertEquals(3, report.getFailed());
+        List<RecipeBatchReport.ItemResult> items = report.getItems();
+        assertEquals(RecipeBatchReport.Status.CREATED, items.get(0).getStatus());
+        assertEquals(RecipeBatchReport.Status.UPDATED, items.get(RECIPES).getStatus());
+        assertEquals(existing.getVersion() + 1, items.get(RECIPES).getVersion());
+        assertEquals(RecipeBatchReport.Status.VERSION_CONFLICT, items.get(RECIPES + 1).getStatus());
+        assertEquals(RecipeBatchReport.Status.NOT_FOUND, items.get(RECIPES + 2).getStatus());
+        assertEquals(RecipeBatchReport.Status.INVALID, items.get(RECIPES + 3).getStatus());
+        assertEquals(RECIPES + 3, items.get(RECIPES + 3).getIndex());
+        RecipeDTO updated = recipeService.getRecipe(existing.getId().longValue());
+        assertEquals(update.getName(), updated.getName());
+        assertEquals(6, updated.getServings());
+        assertFalse(updated.isVegetarian());
+
+        // one query for the recipes to update, one ingredient lookup and insert, then a sequence call
+        // and a batched statement per table and change, whatever the number of recipes in the batch
+        assertTrue(statements <= 12, "too many statements per batch: " + statements);
+    }
+
+    private RecipeDTO recipeWithIngredients(int count) {
+        String suffix = UUID.randomUUID().toString();
+        String[] ingredientNames = new String[count];
+        for (int i = 0; i < count; i++) {
+            ingredientNames[i] = "ingredient-" + i + "-" + suffix;
+        }
+        return recipe("Batch Recipe " + suffix, ingredientNames);
+    }
+}
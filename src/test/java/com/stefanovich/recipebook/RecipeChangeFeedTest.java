@@ -0,0 +1,219 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeChangeFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RecipeChangeFeedTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private RecipeChangeFeed recipeChangeFeed;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        // the log holds 10 changes from before the start
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(10L);
+        stubSequence("recipe_change_sequence_seq", 10);
+        stubSequence("recipe_change_outbox_id_seq", 100);
+        // dispatched and sent on the calling thread
+        recipeChangeFeed = new RecipeChangeFeed(jdbcTemplate, 3, 2, Duration.ofMinutes(1), Runnable::run, Runnable::run);
+    }
+
+    private void stubSequence(String name, long start) {
+        AtomicLong sequence = new AtomicLong(start);
+        when(jdbcTemplate.queryForList(contains(name), eq(Long.class), anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(2);
+            return new ArrayList<>(LongStream.range(0, count).map(i -> sequence.incrementAndGet()).boxed().toList());
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(recipeChangeFeed);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testChangesArePublishedAfterCommit() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        recipeChangeFeed.subscribe(emitter, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        recipeChangeFeed.onRecipeChanged(RecipeChangedEvent.created(recipe(1)));
+        recipeChangeFeed.onRecipeChanged(RecipeChangedEvent.deleted(2));
+        assertEquals(List.of(), emitter.ids);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(List.of(11L, 12L), emitter.ids);
+        // written to the outbox before the commit, then moved to the log with their sequences
+        InOrder inOrder = inOrder(jdbcTemplate);
+        ArgumentCaptor<List<Object[]>> outboxRows = rowsCaptor();
+        inOrder.verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO recipe_change_outbox"), outboxRows.capture());
+        assertArrayEquals(new Object[]{101L, "CREATED", 1}, Arrays.copyOf(outboxRows.getValue().get(0), 3));
+        assertArrayEquals(new Object[]{102L, "DELETED", 2}, Arrays.copyOf(outboxRows.getValue().get(1), 3));
+        ArgumentCaptor<List<Object[]>> movedRows = rowsCaptor();
+        inOrder.verify(jdbcTemplate).batchUpdate(contains("DELETE FROM recipe_change_outbox"), movedRows.capture());
+        assertArrayEquals(new Object[]{101L, 11L}, movedRows.getValue().get(0));
+        assertArrayEquals(new Object[]{102L, 12L}, movedRows.getValue().get(1));
+    }
+
+    @Test
+    public void testOutboxLeftoversAreLoggedAtStart() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM recipe_change_outbox"), eq(Long.class))).thenReturn(List.of(7L, 8L));
+
+        new RecipeChangeFeed(jdbcTemplate, 3, 2, Duration.ofMinutes(1), Runnable::run, Runnable::run);
+
+        ArgumentCaptor<List<Object[]>> movedRows = rowsCaptor();
+        verify(jdbcTemplate).batchUpdate(contains("DELETE FROM recipe_change_outbox"), movedRows.capture());
+        assertArrayEquals(new Object[]{7L, 11L}, movedRows.getValue().get(0));
+        assertArrayEquals(new Object[]{8L, 12L}, movedRows.getValue().get(1));
+    }
+
+    @Test
+    public void testSlowSubscriberDoesNotDelayOthers() {
+        // the sends wait here until they are run
+        List<Runnable> sends = new ArrayList<>();
+        RecipeChangeFeed feed = new RecipeChangeFeed(jdbcTemplate, 3, 2, Duration.ofMinutes(1), Runnable::run, sends::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        RecordingEmitter fast = new RecordingEmitter();
+        feed.subscribe(slow, null);
+        feed.subscribe(fast, null);
+
+        feed.onRecipeChanged(RecipeChangedEvent.deleted(1));
+        sends.remove(1).run();
+        assertEquals(List.of(11L), fast.ids);
+        assertEquals(List.of(), slow.ids);
+
+        // the third change does not fit in the queue of the slow subscriber
+        feed.onRecipeChanged(RecipeChangedEvent.deleted(2));
+        feed.onRecipeChanged(RecipeChangedEvent.deleted(3));
+        assertTrue(slow.completed);
+        sends.forEach(Runnable::run);
+        assertEquals(List.of(11L, 12L, 13L), fast.ids);
+        assertEquals(List.of(), slow.ids);
+        assertFalse(fast.completed);
+    }
+
+    @Test
+    public void testRolledBackChangesAreNotPublished() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        recipeChangeFeed.subscribe(emitter, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        recipeChangeFeed.onRecipeChanged(RecipeChangedEvent.created(recipe(1)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        recipeChangeFeed.onRecipeChanged(RecipeChangedEvent.deleted(2));
+
+        assertEquals(List.of(11L), emitter.ids);
+    }
+
+    @Test
+    public void testReconnectReplaysMissedChanges() {
+        for (int i = 1; i <= 4; i++) {
+            recipeChangeFeed.onRecipeChanged(RecipeChangedEvent.updated(recipe(i)));
+        }
+
+        // changes 12 to 14 are still buffered
+        RecordingEmitter upToDate = new RecordingEmitter();
+        recipeChangeFeed.subscribe(upToDate, 12L);
+        recipeChangeFeed.onRecipeChanged(RecipeChangedEvent.deleted(5));
+        assertEquals(List.of(13L, 14L, 15L), upToDate.ids);
+
+        // change 12 has been dropped from the buffer by now
+        RecordingEmitter behind = new RecordingEmitter();
+        recipeChangeFeed.subscribe(behind, 11L);
+        assertEquals(List.of(), behind.ids);
+        assertEquals(List.of("resync"), behind.names);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.beforeCommit(false);
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Object[]>> rowsCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static RecipeDTO recipe(int id) {
+        RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(id);
+        recipeDTO.setName("Recipe " + id);
+        return recipeDTO;
+    }
+
+    /**
+     * Records the ids and names of the events instead of writing them to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<Long> ids = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof String text) {
+                    for (String line : text.split("\n")) {
+                        if (line.startsWith("id:")) {
+                            ids.add(Long.valueOf(line.substring(3)));
+                        } else if (line.startsWith("event:")) {
+                            names.add(line.substring(6));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
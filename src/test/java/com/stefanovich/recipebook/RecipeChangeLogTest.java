@@ -0,0 +1,74 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.model.dto.RecipeChange;
+import com.stefanovich.recipebook.service.RecipeChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional: the changes are only logged once their transaction commits.
+ */
+@SpringBootTest
+public class RecipeChangeLogTest {
+
+    @Autowired
+    private RecipeChangeFeed recipeChangeFeed;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testCommittedChangesAreLogged() throws InterruptedException {
+        // no foreign key, any recipe id is logged
+        int rolledBackId = -ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+        int committedId = rolledBackId + 1;
+        CountDownLatch sent = new CountDownLatch(1);
+        recipeChangeFeed.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                sent.countDown();
+            }
+        }, null);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(RecipeChangedEvent.deleted(rolledBackId));
+            assertEquals(0, countOutboxRows(rolledBackId));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(RecipeChangedEvent.deleted(committedId)));
+
+        // sent once it has been logged
+        assertTrue(sent.await(10, TimeUnit.SECONDS));
+        assertEquals(0, countOutboxRows(rolledBackId));
+        assertEquals(0, countOutboxRows(committedId));
+        Long sequence = jdbcTemplate.queryForObject("SELECT sequence FROM recipe_change WHERE recipe_id = ?", Long.class, committedId);
+        List<RecipeChange> changes = recipeChangeFeed.getChangesSince(sequence - 1, 1);
+        assertEquals(committedId, changes.get(0).getRecipeId());
+        assertEquals(RecipeChangedEvent.ChangeType.DELETED, changes.get(0).getType());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM recipe_change WHERE recipe_id = ?", Integer.class, rolledBackId));
+    }
+
+    private int countOutboxRows(int recipeId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM recipe_change_outbox WHERE recipe_id = ?", Integer.class, recipeId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeCsvParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecipeCsvParserTest {
+
+    @Test
+    public void testParseRecipe() {
+        RecipeDTO recipeDTO = RecipeCsvParser.parse("Pasta,Boil the pasta,20,4,EASY,true,pasta:200:g; salt:5 ;");
+
+        assertEquals("Pasta", recipeDTO.getName());
+        assertEquals("Boil the pasta", recipeDTO.getInstructions());
+        assertEquals(20, recipeDTO.getPreparationTime());
+        assertEquals(4, recipeDTO.getServings());
+        assertEquals("EASY", recipeDTO.getDifficulty());
+        assertTrue(recipeDTO.isVegetarian());
+        assertEquals(List.of(
+                new IngredientInRecipeDTO(null, new IngredientDTO(null, "pasta"), null, 200, "g"),
+                new IngredientInRecipeDTO(null, new IngredientDTO(null, "salt"), null, 5, null)
+        ), recipeDTO.getIngredients());
+    }
+
+    @Test
+    public void testParseQuotedFields() {
+        RecipeDTO recipeDTO = RecipeCsvParser.parse("\"Fish, \"\"baked\"\"\",\"Bake, then serve\",30,,,false,");
+
+        assertEquals("Fish, \"baked\"", recipeDTO.getName());
+        assertEquals("Bake, then serve", recipeDTO.getInstructions());
+        assertNull(recipeDTO.getServings());
+        assertNull(recipeDTO.getDifficulty());
+        assertFalse(recipeDTO.isVegetarian());
+        assertTrue(recipeDTO.getIngredients().isEmpty());
+    }
+
+    @Test
+    public void testParseMalformedLines() {
+        assertEquals("expected 7 columns but found 6",
+                assertThrows(IllegalArgumentException.class, () -> RecipeCsvParser.parse("Pasta,Boil,20,4,EASY,true")).getMessage());
+        assertEquals("preparationTime should be a number but was soon",
+                assertThrows(IllegalArgumentException.class, () -> RecipeCsvParser.parse("Pasta,Boil,soon,4,EASY,true,")).getMessage());
+        assertEquals("ingredient should be name:quantity[:unit] but was pasta",
+                assertThrows(IllegalArgumentException.class, () -> RecipeCsvParser.parse("Pasta,Boil,20,4,EASY,true,pasta")).getMessage());
+        assertEquals("quantity should be a number but was lots",
+                assertThrows(IllegalArgumentException.class, () -> RecipeCsvParser.parse("Pasta,Boil,20,4,EASY,true,pasta:lots")).getMessage());
+        assertEquals("unterminated quoted field",
+                assertThrows(IllegalArgumentException.class, () -> RecipeCsvParser.parse("\"Pasta,Boil,20,4,EASY,true,")).getMessage());
+    }
+}
@@ -0,0 +1,60 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeDeleter;
+import com.stefanovich.recipebook.service.RecipeService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static com.stefanovich.recipebook.RecipeFixtures.recipe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+public class RecipeDeleterTest {
+    // the row counts of the current transaction
+    private static final String RECIPE_TUPLES_SQL =
+            "SELECT n_tup_upd, n_tup_del FROM pg_stat_xact_user_tables WHERE relname = 'recipe'";
+
+    @Autowired
+    private RecipeDeleter recipeDeleter;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testRecipesAreDeletedWithoutRefreshingTheirSearchVector() {
+        RecipeDTO pasta = recipeService.addRecipe(recipe("Deleted pasta", "pasta", "basil"));
+        RecipeDTO soup = recipeService.addRecipe(recipe("Deleted soup", "leek"));
+        entityManager.flush();
+        List<Long> before = recipeTuples();
+
+        RecipeDeleter.Result result = recipeDeleter.delete(List.of(pasta.getId(), soup.getId(), Integer.MAX_VALUE));
+
+        assertEquals(List.of(pasta.getId(), soup.getId()), result.recipeIds().stream().sorted().toList());
+        assertEquals(3, result.ingredientRows());
+        List<Long> after = recipeTuples();
+        // the recipe rows are deleted, but not updated before
+        assertEquals(before.get(0), after.get(0));
+        assertEquals(before.get(1) + 2, after.get(1));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM ingredientinrecipe WHERE recipe_id IN (?, ?)",
+                Integer.class, pasta.getId(), soup.getId()));
+    }
+
+    private List<Long> recipeTuples() {
+        return jdbcTemplate.queryForObject(RECIPE_TUPLES_SQL, (resultSet, rowNum) ->
+                List.of(resultSet.getLong("n_tup_upd"), resultSet.getLong("n_tup_del")));
+    }
+}
@@ -0,0 +1,70 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.service.RecipeFilterCache;
+import com.stefanovich.recipebook.service.RecipeFilterKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class RecipeFilterCacheTest {
+
+    private RecipeFilterCache recipeFilterCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        recipeFilterCache = new RecipeFilterCache(100, 1 << 20, new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testEquivalentFiltersShareKey() {
+        RecipeFilterKey key = RecipeFilterKey.of(true, null, List.of(" Salmon", "potatoes", "salmon"), null, null, "  Oven baked ");
+        RecipeFilterKey equivalent = RecipeFilterKey.of(true, null, List.of("Potatoes", "SALMON"), IngredientMatchMode.ANY, List.of(), "oven, baked");
+
+        assertEquals(key, equivalent);
+        assertEquals(RecipeFilterKey.of(null, null, List.of("salmon"), IngredientMatchMode.ALL, null, null),
+                RecipeFilterKey.of(null, null, List.of("Salmon"), IngredientMatchMode.ANY, null, ""));
+        assertNotEquals(RecipeFilterKey.of(null, null, List.of("salmon", "leek"), IngredientMatchMode.ALL, null, null),
+                RecipeFilterKey.of(null, null, List.of("salmon", "leek"), IngredientMatchMode.ANY, null, null));
+    }
+
+    @Test
+    public void testResultIsCachedUntilRecipeChanges() {
+        RecipeFilterKey key = RecipeFilterKey.of(true, null, null, null, null, null);
+
+        recipeFilterCache.get(key, this::load);
+        recipeFilterCache.get(key, this::load);
+        assertEquals(1, loads.get());
+
+        recipeFilterCache.beforeRecipeChangeCommit(RecipeChangedEvent.deleted(1));
+        recipeFilterCache.get(key, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testResultLoadedDuringRecipeChangeIsNotCached() {
+        RecipeFilterKey key = RecipeFilterKey.of(true, null, null, null, null, null);
+
+        recipeFilterCache.get(key, () -> {
+            recipeFilterCache.afterRecipeChangeCompletion(RecipeChangedEvent.deleted(1));
+            return load();
+        });
+        recipeFilterCache.get(key, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    private List<Recipe> load() {
+        loads.incrementAndGet();
+        return List.of(new Recipe());
+    }
+}
@@ -0,0 +1,136 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.model.Difficulty;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeFilterIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RecipeFilterIndexTest {
+
+    private RecipeFilterIndex recipeFilterIndex;
+
+    @BeforeEach
+    public void setUp() {
+        recipeFilterIndex = new RecipeFilterIndex(null, true);
+        recipeFilterIndex.onRecipeChanged(RecipeChangedEvent.created(recipe(1, false, 2, "EASY", "Salmon", "Potatoes")));
+        recipeFilterIndex.onRecipeChanged(RecipeChangedEvent.created(recipe(2, true, 4, "HARD", "Potatoes", "Leek")));
+        recipeFilterIndex.onRecipeChanged(RecipeChangedEvent.created(recipe(3, true, 2, "EASY", "Tofu")));
+    }
+
+    @Test
+    public void testFilterByAttributes() {
+        assertArrayEquals(new int[]{2, 3}, recipeFilterIndex.filter(true, null, null, null, null, null));
+        assertArrayEquals(new int[]{1}, recipeFilterIndex.filter(false, null, null, null, null, null));
+        assertArrayEquals(new int[]{1, 3}, recipeFilterIndex.filter(null, 2, null, null, null, null));
+        assertArrayEquals(new int[]{3}, recipeFilterIndex.filter(true, 2, Difficulty.EASY, null, null, null));
+        assertArrayEquals(new int[]{}, recipeFilterIndex.filter(null, 6, null, null, null, null));
+    }
+
+    @Test
+    public void testFilterByIngredients() {
+        assertArrayEquals(new int[]{1, 2}, recipeFilterIndex.filter(null, null, null, List.of("potatoes"), null, null));
+        assertArrayEquals(new int[]{1, 3}, recipeFilterIndex.filter(null, null, null, List.of("Salmon", "Tofu"), null, null));
+        assertArrayEquals(new int[]{2, 3}, recipeFilterIndex.filter(null, null, null, null, null, List.of("Salmon")));
+        assertArrayEquals(new int[]{2}, recipeFilterIndex.filter(true, null, null, List.of("Potatoes"), null, List.of("Tofu")));
+        assertArrayEquals(new int[]{}, recipeFilterIndex.filter(null, null, null, List.of("Unknown"), null, null));
+    }
+
+    @Test
+    public void testFilterByAllIngredients() {
+        assertArrayEquals(new int[]{1}, recipeFilterIndex.filter(null, null, null, List.of("Salmon", "potatoes"), IngredientMatchMode.ALL, null));
+        assertArrayEquals(new int[]{1, 2}, recipeFilterIndex.filter(null, null, null, List.of("Potatoes", "POTATOES"), IngredientMatchMode.ALL, null));
+        assertArrayEquals(new int[]{}, recipeFilterIndex.filter(null, null, null, List.of("Potatoes", "Unknown"), IngredientMatchMode.ALL, null));
+    }
+
+    @Test
+    public void testUpdateAndDelete() {
+        recipeFilterIndex.onRecipeChanged(RecipeChangedEvent.updated(recipe(1, true, 4, "HARD", "Tofu")));
+        recipeFilterIndex.onRecipeChanged(RecipeChangedEvent.deleted(3));
+
+        assertArrayEquals(new int[]{1, 2}, recipeFilterIndex.filter(true, 4, Difficulty.HARD, null, null, null));
+        assertArrayEquals(new int[]{1}, recipeFilterIndex.filter(null, null, null, List.of("Tofu"), null, null));
+        assertArrayEquals(new int[]{2}, recipeFilterIndex.filter(null, null, null, List.of("Salmon", "Potatoes"), null, null));
+    }
+
+    @Test
+    public void testRebuildWithoutDifficulty() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(rows(Map.of("id", 7, "name", "Tofu")))
+                .when(jdbcTemplate).query(startsWith("SELECT id, name"), any(RowCallbackHandler.class));
+        // a recipe written before the difficulty was required
+        Map<String, Object> legacy = new HashMap<>(Map.of("id", 1, "vegetarian", true, "servings", 2));
+        legacy.put("difficulty", null);
+        doAnswer(rows(legacy, Map.of("id", 2, "vegetarian", true, "difficulty", "EASY", "servings", 2)))
+                .when(jdbcTemplate).query(startsWith("SELECT id, vegetarian"), any(RowCallbackHandler.class));
+        doAnswer(rows(Map.of("recipe_id", 1, "ingredient_id", 7), Map.of("recipe_id", 2, "ingredient_id", 7)))
+                .when(jdbcTemplate).query(startsWith("SELECT recipe_id"), any(RowCallbackHandler.class));
+        RecipeFilterIndex rebuiltIndex = new RecipeFilterIndex(jdbcTemplate, true);
+
+        rebuiltIndex.onApplicationReady();
+
+        assertTrue(rebuiltIndex.isReady());
+        assertArrayEquals(new int[]{1, 2}, rebuiltIndex.filter(true, 2, null, List.of("tofu"), null, null));
+        assertArrayEquals(new int[]{2}, rebuiltIndex.filter(null, null, Difficulty.EASY, null, null, null));
+        rebuiltIndex.onRecipeChanged(RecipeChangedEvent.deleted(1));
+        assertArrayEquals(new int[]{2}, rebuiltIndex.filter(true, null, null, null, null, null));
+    }
+
+    /**
+     * Passes the rows, keyed by column, to the row callback of a query.
+     */
+    @SafeVarargs
+    private static Answer<Void> rows(Map<String, Object>... rows) {
+        return invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getInt(anyString())).thenAnswer(column -> row.get(column.<String>getArgument(0)));
+                when(resultSet.getString(anyString())).thenAnswer(column -> row.get(column.<String>getArgument(0)));
+                when(resultSet.getBoolean(anyString())).thenAnswer(column -> row.get(column.<String>getArgument(0)));
+                handler.processRow(resultSet);
+            }
+            return null;
+        };
+    }
+
+    private static RecipeDTO recipe(int id, boolean vegetarian, int servings, String difficulty, String... ingredientNames) {
+        List<IngredientInRecipeDTO> ingredients = new ArrayList<>();
+        for (String name : ingredientNames) {
+            IngredientInRecipeDTO ingredientInRecipeDTO = new IngredientInRecipeDTO();
+            ingredientInRecipeDTO.setIngredient(new IngredientDTO(name.hashCode(), name));
+            ingredientInRecipeDTO.setRecipeId(id);
+            ingredients.add(ingredientInRecipeDTO);
+        }
+        RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(id);
+        recipeDTO.setName("Recipe " + id);
+        recipeDTO.setVegetarian(vegetarian);
+        recipeDTO.setServings(servings);
+        recipeDTO.setDifficulty(difficulty);
+        recipeDTO.setIngredients(ingredients);
+        return recipeDTO;
+    }
+}
@@ -0,0 +1,110 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.IngredientMatchMode;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.ReactiveRecipeService;
+import com.stefanovich.recipebook.service.RecipeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.stefanovich.recipebook.RecipeFixtures.recipe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the same filters against the JPA service and the R2DBC service. The recipes are committed,
+ * so that both stacks see them, and deleted after every test.
+ */
+@SpringBootTest
+public class RecipeFilterTest {
+
+    enum Stack {JPA, R2DBC}
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private ReactiveRecipeService reactiveRecipeService;
+
+    private String cheese;
+    private String tomato;
+    private String basil;
+    private Integer pizza;
+    private Integer salad;
+
+    @BeforeEach
+    public void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        cheese = "cheese-" + suffix;
+        tomato = "tomato-" + suffix;
+        basil = "basil-" + suffix;
+        pizza = recipeService.addRecipe(recipe("Pizza", cheese, tomato, basil)).getId();
+        salad = recipeService.addRecipe(recipe("Salad", tomato)).getId();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recipeService.deleteRecipe(pizza.longValue());
+        recipeService.deleteRecipe(salad.longValue());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Stack.class)
+    public void testIncludeAnyReturnsEachRecipeOnce(Stack stack) {
+        List<Integer> result = filter(stack, null, List.of(cheese, tomato, basil), IngredientMatchMode.ANY, null, null);
+
+        // ordered by id on both stacks, like the recipes found with the filter index
+        assertEquals(List.of(pizza, salad), result);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Stack.class)
+    public void testIncludeAll(Stack stack) {
+        List<Integer> result = filter(stack, null, List.of(tomato, cheese.toUpperCase()), IngredientMatchMode.ALL, null, null);
+
+        assertEquals(List.of(pizza), result);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Stack.class)
+    public void testIncludeAllWithExclude(Stack stack) {
+        List<Integer> result = filter(stack, null, List.of(tomato), IngredientMatchMode.ALL, List.of(basil), null);
+
+        assertEquals(List.of(salad), result);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Stack.class)
+    public void testSearchTextWithVegetarian(Stack stack) {
+        List<Integer> result = filter(stack, true, List.of(tomato), IngredientMatchMode.ANY, null, "pizz");
+
+        assertEquals(List.of(pizza), result);
+    }
+
+    @Test
+    public void testStacksReturnSameRecipes() {
+        RecipeDTO jpa = recipeService.getRecipe(pizza.longValue());
+        RecipeDTO r2dbc = reactiveRecipeService.getRecipe(pizza).block();
+
+        assertEquals(jpa, r2dbc);
+        assertEquals(List.of(jpa), reactiveRecipeService.filterRecipes(null, null, List.of(basil), null, null, null).collectList().block());
+    }
+
+    private List<Integer> filter(Stack stack, Boolean vegetarian, List<String> includeIngredients, IngredientMatchMode matchMode,
+                                 List<String> excludeIngredients, String searchText) {
+        if (stack == Stack.JPA) {
+            return recipeService.filterRecipes(vegetarian, null, includeIngredients, matchMode, excludeIngredients, searchText)
+                    .stream().map(Recipe::getId).toList();
+        }
+        return reactiveRecipeService.filterRecipes(vegetarian, null, includeIngredients, matchMode, excludeIngredients, searchText)
+                .map(RecipeDTO::getId).collectList().block();
+    }
+}
@@ -0,0 +1,45 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recipes for the tests that write through the service.
+ */
+public final class RecipeFixtures {
+
+    private RecipeFixtures() {
+    }
+
+    /**
+     * Builds a valid vegetarian recipe with 100 g of every ingredient.
+     *
+     * @param name            The name of the recipe.
+     * @param ingredientNames The names of its ingredients.
+     * @return The recipe, without ids.
+     */
+    public static RecipeDTO recipe(String name, String... ingredientNames) {
+        List<IngredientInRecipeDTO> ingredients = new ArrayList<>();
+        for (String ingredientName : ingredientNames) {
+            IngredientInRecipeDTO ingredientInRecipeDTO = new IngredientInRecipeDTO();
+            ingredientInRecipeDTO.setIngredient(new IngredientDTO(null, ingredientName));
+            ingredientInRecipeDTO.setQuantity(100);
+            ingredientInRecipeDTO.setUnitOfMeasure("g");
+            ingredients.add(ingredientInRecipeDTO);
+        }
+
+        RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setName(name);
+        recipeDTO.setInstructions("Mix everything");
+        recipeDTO.setPreparationTime(20);
+        recipeDTO.setServings(2);
+        recipeDTO.setDifficulty("EASY");
+        recipeDTO.setVegetarian(true);
+        recipeDTO.setIngredients(ingredients);
+        return recipeDTO;
+    }
+}
@@ -0,0 +1,123 @@
+package com.stefanovich.recipebook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stefanovich.recipebook.configuration.RecipeFragmentHttpMessageConverter;
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.mapper.RecipeDtoList;
+import com.stefanovich.recipebook.mapper.RecipeMapper;
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeFragmentCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecipeFragmentCacheTest {
+    private static final Type RECIPE_DTO_LIST = new ParameterizedTypeReference<List<RecipeDTO>>() {
+    }.getType();
+    private static final Type RECIPE_LIST = new ParameterizedTypeReference<List<Recipe>>() {
+    }.getType();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RecipeMapper recipeMapper = new RecipeMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private RecipeFragmentCache recipeFragmentCache;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recipeFragmentCache = new RecipeFragmentCache(objectMapper, recipeMapper, 1 << 20, meterRegistry);
+    }
+
+    @Test
+    public void testFragmentIsServedUntilVersionChanges() throws Exception {
+        Recipe recipe = recipe(1, "Pasta");
+
+        recipeFragmentCache.getDtoFragment(recipe);
+        recipeFragmentCache.getDtoFragment(recipe);
+        assertEquals(1, requests("hit"));
+        assertEquals(0.5, recipeFragmentCache.hitRatio());
+
+        recipe.setName("Risotto");
+        recipe.setVersion(1);
+        byte[] json = recipeFragmentCache.getDtoFragment(recipe);
+        assertEquals(2, requests("miss"));
+        assertEquals(objectMapper.writeValueAsString(recipeMapper.toDto(recipe)), new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUpdatedRecipeIsEvicted() throws Exception {
+        Recipe recipe = recipe(1, "Pasta");
+        recipeFragmentCache.getDtoFragment(recipe);
+        recipeFragmentCache.getEntityFragment(recipe);
+
+        recipeFragmentCache.afterRecipeChangeCompletion(RecipeChangedEvent.created(recipeMapper.toDto(recipe)));
+        recipeFragmentCache.getDtoFragment(recipe);
+        assertEquals(1, requests("hit"));
+
+        recipeFragmentCache.afterRecipeChangeCompletion(RecipeChangedEvent.updated(recipeMapper.toDto(recipe)));
+        recipeFragmentCache.getDtoFragment(recipe);
+        recipeFragmentCache.getEntityFragment(recipe);
+        assertEquals(1, requests("hit"));
+        assertEquals(4, requests("miss"));
+    }
+
+    @Test
+    public void testListsAreWrittenAsJackson() throws Exception {
+        List<Recipe> recipes = List.of(recipe(1, "Pasta"), recipe(2, "Risotto"), recipe(3, "Soup"));
+        RecipeFragmentHttpMessageConverter converter = new RecipeFragmentHttpMessageConverter(recipeFragmentCache);
+        RecipeDtoList recipeDTOs = new RecipeDtoList(recipes, recipeMapper);
+
+        assertTrue(converter.canWrite(RECIPE_DTO_LIST, List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(RECIPE_DTO_LIST, List.class, MediaType.APPLICATION_CBOR));
+        assertFalse(converter.canRead(RECIPE_DTO_LIST, null, MediaType.APPLICATION_JSON));
+        assertEquals(objectMapper.writeValueAsString(recipeDTOs), write(converter, recipeDTOs, RECIPE_DTO_LIST));
+        assertEquals(objectMapper.writeValueAsString(recipeDTOs), write(converter, recipeDTOs, RECIPE_DTO_LIST));
+        assertEquals(objectMapper.writeValueAsString(recipes), write(converter, recipes, RECIPE_LIST));
+        assertEquals("[]", write(converter, List.of(), RECIPE_LIST));
+        assertEquals(3, requests("hit"));
+    }
+
+    private static String write(RecipeFragmentHttpMessageConverter converter, List<?> items, Type type) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(items, type, MediaType.APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter("recipebook.fragment-cache.requests", "result", result).count();
+    }
+
+    private static Recipe recipe(int id, String name) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setVersion(0);
+        recipe.setName(name);
+        recipe.setInstructions("Cook");
+        recipe.setPreparationTime(20);
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setName("salt");
+        IngredientInRecipe ingredientInRecipe = new IngredientInRecipe();
+        ingredientInRecipe.setId(id);
+        ingredientInRecipe.setIngredient(ingredient);
+        ingredientInRecipe.setRecipe(recipe);
+        ingredientInRecipe.setQuantity(5);
+        ingredientInRecipe.setUnitOfMeasure("g");
+        recipe.getIngredients().add(ingredientInRecipe);
+        return recipe;
+    }
+}
@@ -0,0 +1,148 @@
+package com.stefanovich.recipebook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.model.dto.RecipeImportReport;
+import com.stefanovich.recipebook.service.IngredientResolver;
+import com.stefanovich.recipebook.service.RecipeImportService;
+import com.stefanovich.recipebook.service.RecipeValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RecipeImportServiceTest {
+    private static final String RECIPE_IDS = "SELECT nextval('recipe_id_seq')::int FROM generate_series(1, ?)";
+    private static final String INGREDIENT_IN_RECIPE_IDS = "SELECT nextval('ingredientinrecipe_id_seq')::int FROM generate_series(1, ?)";
+
+    @Mock
+    private IngredientResolver ingredientResolver;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private RecipeImportService recipeImportService;
+
+    @BeforeEach
+    public void setUp() {
+        RecipeValidator recipeValidator = new RecipeValidator(Validation.buildDefaultValidatorFactory().getValidator());
+        recipeImportService = new RecipeImportService(ingredientResolver, jdbcTemplate, transactionManager, recipeValidator,
+                new ObjectMapper(), eventPublisher, new SimpleMeterRegistry(), 1000);
+    }
+
+    @Test
+    public void testInvalidLinesAreReported() throws IOException {
+        RecipeImportReport report = recipeImportService.importRecipes(stream(
+                "{\"name\": \"Pasta\"",
+                "",
+                "{\"name\": \"Pasta\", \"instructions\": \"Boil\", \"difficulty\": \"EASY\"}",
+                "{\"name\": \"Pasta\", \"instructions\": \"Boil\", \"preparationTime\": 10, \"difficulty\": \"TRIVIAL\"}"
+        ), RecipeImportService.Format.NDJSON);
+
+        assertEquals(0, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(1L, 3L, 4L), report.getErrors().stream().map(RecipeImportReport.LineError::getLine).toList());
+        assertEquals("preparationTime should not be null", report.getErrors().get(1).getMessage());
+        assertTrue(report.getErrors().get(2).getMessage().startsWith("difficulty should be one of"));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void testReportedErrorsAreCapped() throws IOException {
+        String[] lines = new String[1002];
+        lines[0] = "name,instructions,preparationTime,servings,difficulty,vegetarian,ingredients";
+        for (int i = 1; i < lines.length; i++) {
+            lines[i] = "Pasta,Boil,soon,4,EASY,true,";
+        }
+
+        RecipeImportReport report = recipeImportService.importRecipes(stream(lines), RecipeImportService.Format.CSV);
+
+        assertEquals(1001, report.getFailed());
+        assertEquals(1000, report.getErrors().size());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertTrue(report.isErrorsTruncated());
+    }
+
+    @Test
+    public void testRowsAreBatchedWithoutCopy() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+                invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jdbcTemplate.queryForList(RECIPE_IDS, Integer.class, 1)).thenReturn(List.of(100));
+        when(jdbcTemplate.queryForList(INGREDIENT_IN_RECIPE_IDS, Integer.class, 1)).thenReturn(List.of(30));
+        when(ingredientResolver.resolve(anyList())).thenReturn(Map.of("pasta", ingredient(7, "pasta"), "salt", ingredient(8, "salt")));
+
+        RecipeImportReport report = recipeImportService.importRecipes(stream(
+                "Pasta,Boil,20,4,EASY,true,pasta:200:g;salt:5",
+                "Soup,Simmer,40,2,MEDIUM,false,salt:3:g"
+        ), RecipeImportService.Format.CSV);
+
+        assertEquals(2, report.getImported());
+        assertFalse(report.isErrorsTruncated());
+        ArgumentCaptor<List<Object[]>> recipeRows = rowsCaptor();
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO recipe (id, name, instructions, preparation_time, servings, difficulty, vegetarian) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)"), recipeRows.capture());
+        // the sequence value 100 reserves the ids 51 to 100
+        assertArrayEquals(new Object[]{51, "Pasta", "Boil", 20, 4, "EASY", true}, recipeRows.getValue().get(0));
+        assertArrayEquals(new Object[]{52, "Soup", "Simmer", 40, 2, "MEDIUM", false}, recipeRows.getValue().get(1));
+        ArgumentCaptor<List<Object[]>> ingredientRows = rowsCaptor();
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO ingredientinrecipe (id, ingredient_id, recipe_id, quantity, unit_of_measure) " +
+                "VALUES (?, ?, ?, ?, ?)"), ingredientRows.capture());
+        // values below the block size start at 1
+        assertArrayEquals(new Object[]{1, 7, 51, 200.0, "g"}, ingredientRows.getValue().get(0));
+        assertArrayEquals(new Object[]{2, 8, 51, 5.0, "g"}, ingredientRows.getValue().get(1));
+        assertArrayEquals(new Object[]{3, 8, 52, 3.0, "g"}, ingredientRows.getValue().get(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Object[]>> rowsCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static Ingredient ingredient(int id, String name) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setName(name);
+        return ingredient;
+    }
+
+    private static ByteArrayInputStream stream(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
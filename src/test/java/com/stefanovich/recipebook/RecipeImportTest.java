@@ -0,0 +1,91 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeImportReport;
+import com.stefanovich.recipebook.service.RecipeImportService;
+import com.stefanovich.recipebook.service.RecipeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Imports with COPY into PostgreSQL, in chunks of two recipes.
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = "recipebook.import.chunk-size=2")
+public class RecipeImportTest {
+
+    @Autowired
+    private RecipeImportService recipeImportService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testImportCsv() throws Exception {
+        String suffix = UUID.randomUUID().toString();
+        String csv = String.join("\n",
+                "name,instructions,preparationTime,servings,difficulty,vegetarian,ingredients",
+                "\"Pasta, " + suffix + "\",Boil,20,4,EASY,true,basil-" + suffix + ":10:g;Garlic-" + suffix + ":2:pcs",
+                "Soup " + suffix + ",\"Simmer \"\"slowly\"\"\",40,2,MEDIUM,false,garlic-" + suffix + ":1",
+                "Broken " + suffix + ",Boil,soon,2,MEDIUM,false,",
+                "Salad " + suffix + ",Mix,5,1,EASY,true,lettuce-" + suffix + ":100:g");
+
+        RecipeImportReport report = recipeImportService.importRecipes(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), RecipeImportService.Format.CSV);
+
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(4, report.getErrors().get(0).getLine());
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM recipe WHERE name LIKE ? ORDER BY name", Long.class, "%" + suffix);
+        assertEquals(3, ids.size());
+        RecipeDTO pasta = recipeService.getRecipe(ids.get(0));
+        assertEquals("Pasta, " + suffix, pasta.getName());
+        List<IngredientInRecipeDTO> ingredients = pasta.getIngredients().stream()
+                .sorted(Comparator.comparing(IngredientInRecipeDTO::getQuantity))
+                .toList();
+        assertEquals("Garlic-" + suffix, ingredients.get(0).getIngredient().getName());
+        assertEquals("pcs", ingredients.get(0).getUnitOfMeasure());
+        assertEquals("basil-" + suffix, ingredients.get(1).getIngredient().getName());
+        RecipeDTO soup = recipeService.getRecipe(ids.get(2));
+        assertEquals("Simmer \"slowly\"", soup.getInstructions());
+        // both spellings of the garlic share one ingredient
+        assertEquals(ingredients.get(0).getIngredient().getId(), soup.getIngredients().get(0).getIngredient().getId());
+        assertEquals("g", soup.getIngredients().get(0).getUnitOfMeasure());
+    }
+
+    @Test
+    public void testImportNdjson() throws Exception {
+        String suffix = UUID.randomUUID().toString();
+        String ndjson = String.join("\n",
+                "{\"name\": \"Stew " + suffix + "\", \"instructions\": \"Braise\", \"preparationTime\": 90, \"difficulty\": \"HARD\", " +
+                        "\"ingredients\": [{\"ingredient\": {\"name\": \"beef-" + suffix + "\"}, \"quantity\": 500, \"unitOfMeasure\": \"g\"}]}",
+                "{\"name\": \"Toast " + suffix + "\", \"instructions\": \"Toast\", \"preparationTime\": 3, \"difficulty\": \"EASY\"}");
+
+        RecipeImportReport report = recipeImportService.importRecipes(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), RecipeImportService.Format.NDJSON);
+
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getFailed());
+        Long stewId = jdbcTemplate.queryForObject("SELECT id FROM recipe WHERE name = ?", Long.class, "Stew " + suffix);
+        RecipeDTO stew = recipeService.getRecipe(stewId);
+        assertEquals(90, stew.getPreparationTime());
+        assertEquals("beef-" + suffix, stew.getIngredients().get(0).getIngredient().getName());
+    }
+}
@@ -0,0 +1,59 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.mapper.RecipeMapper;
+import com.stefanovich.recipebook.model.Difficulty;
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RecipeMapperTest {
+
+    private final RecipeMapper recipeMapper = new RecipeMapper();
+
+    @Test
+    public void testToDtoMatchesModelMapper() {
+        Recipe recipe = new Recipe();
+        recipe.setId(7);
+        recipe.setName("Test Recipe");
+        recipe.setInstructions("Test Instructions");
+        recipe.setPreparationTime(30);
+        recipe.setServings(4);
+        recipe.setDifficulty(Difficulty.HARD);
+        recipe.setVegetarian(true);
+        for (int i = 0; i < 3; i++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId(i + 1);
+            ingredient.setName("ingredient-" + i);
+            IngredientInRecipe ingredientInRecipe = new IngredientInRecipe();
+            ingredientInRecipe.setId(i + 10);
+            ingredientInRecipe.setIngredient(ingredient);
+            ingredientInRecipe.setRecipe(recipe);
+            ingredientInRecipe.setQuantity(50 * i);
+            ingredientInRecipe.setUnitOfMeasure("g");
+            recipe.getIngredients().add(ingredientInRecipe);
+        }
+
+        RecipeDTO expected = new ModelMapper().map(recipe, RecipeDTO.class);
+        RecipeDTO result = recipeMapper.toDto(recipe);
+
+        assertEquals(expected, result);
+        assertEquals(7, result.getIngredients().get(0).getRecipeId());
+    }
+
+    @Test
+    public void testToDtoWithoutIngredients() {
+        Recipe recipe = new Recipe();
+        recipe.setName("Recipe 1");
+
+        RecipeDTO expected = new ModelMapper().map(recipe, RecipeDTO.class);
+        RecipeDTO result = recipeMapper.toDto(recipe);
+
+        assertEquals(expected, result);
+        assertEquals("MEDIUM", result.getDifficulty());
+    }
+}
@@ -0,0 +1,76 @@
+package com.stefanovich.recipebook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stefanovich.recipebook.exception.InvalidRecipePatchException;
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipePatcher;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RecipePatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RecipePatcher recipePatcher = new RecipePatcher(objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    public void testPatchKeepsMissingMembers() throws Exception {
+        RecipeDTO patched = recipePatcher.apply(recipe(), objectMapper.readTree("{\"name\": \"Baked Salmon\", \"servings\": null}"));
+
+        assertEquals("Baked Salmon", patched.getName());
+        assertNull(patched.getServings());
+        assertEquals("Bake it", patched.getInstructions());
+        assertEquals(1, patched.getIngredients().size());
+        assertEquals(200, patched.getIngredients().get(0).getQuantity());
+    }
+
+    @Test
+    public void testPatchReplacesIngredients() throws Exception {
+        RecipeDTO patched = recipePatcher.apply(recipe(), objectMapper.readTree(
+                "{\"ingredients\": [{\"ingredient\": {\"name\": \"Leek\"}, \"quantity\": 50, \"unitOfMeasure\": \"g\"}]}"));
+
+        assertEquals(1, patched.getIngredients().size());
+        assertEquals("Leek", patched.getIngredients().get(0).getIngredient().getName());
+    }
+
+    @Test
+    public void testInvalidPatches() throws Exception {
+        assertThrows(ConstraintViolationException.class,
+                () -> recipePatcher.apply(recipe(), objectMapper.readTree("{\"name\": null}")));
+        assertThrows(InvalidRecipePatchException.class,
+                () -> recipePatcher.apply(recipe(), objectMapper.readTree("{\"id\": 2}")));
+        assertThrows(InvalidRecipePatchException.class,
+                () -> recipePatcher.apply(recipe(), objectMapper.readTree("{\"difficulty\": \"IMPOSSIBLE\"}")));
+        assertThrows(InvalidRecipePatchException.class,
+                () -> recipePatcher.apply(recipe(), objectMapper.readTree("[]")));
+    }
+
+    private static RecipeDTO recipe() {
+        IngredientInRecipeDTO salmon = new IngredientInRecipeDTO();
+        salmon.setId(10);
+        salmon.setRecipeId(1);
+        salmon.setIngredient(new IngredientDTO(3, "Salmon"));
+        salmon.setQuantity(200);
+        salmon.setUnitOfMeasure("g");
+
+        RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(1);
+        recipeDTO.setName("Salmon");
+        recipeDTO.setInstructions("Bake it");
+        recipeDTO.setPreparationTime(30);
+        recipeDTO.setServings(2);
+        recipeDTO.setDifficulty("EASY");
+        recipeDTO.setIngredients(List.of(salmon));
+        recipeDTO.setVersion(3);
+        return recipeDTO;
+    }
+}
@@ -0,0 +1,73 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.stefanovich.recipebook.RecipeFixtures.recipe;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bounds the SQL statements of the read endpoints, whatever the number of recipes and ingredients they return.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class RecipeQueryBudgetTest {
+    private static final int RECIPES = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private String ingredient;
+    private Integer recipeId;
+
+    @BeforeEach
+    public void setUp() {
+        ingredient = "budget-" + UUID.randomUUID();
+        for (int i = 0; i < RECIPES; i++) {
+            recipeId = recipeService.addRecipe(recipe("Budget recipe " + i, ingredient, ingredient + "-" + i)).getId();
+        }
+        // write the recipes now, so that their inserts are not counted by the tests
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @QueryBudget(1)
+    public void testRecipePageLoadsIngredientsWithTheRecipes() throws Exception {
+        mockMvc.perform(get("/api/v1/recipes").param("limit", "50"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(2)
+    public void testGetRecipeReadsVersionAndRecipe() throws Exception {
+        mockMvc.perform(get("/api/v1/recipes/{id}", recipeId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(1)
+    public void testFilterLoadsIngredientsWithTheRecipes() throws Exception {
+        mockMvc.perform(get("/api/v1/recipes/filter").param("includeIngredients", ingredient))
+                .andExpect(status().isOk());
+    }
+}
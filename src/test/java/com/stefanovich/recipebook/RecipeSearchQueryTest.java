@@ -0,0 +1,26 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.service.RecipeSearchQuery;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RecipeSearchQueryTest {
+
+    @Test
+    public void testToTsQueryMatchesEveryWordPrefix() {
+        assertEquals("salmon:* & oven:*", RecipeSearchQuery.toTsQuery("  Salmon, oven! "));
+    }
+
+    @Test
+    public void testToTsQueryDropsOperators() {
+        assertEquals("a:* & b:*", RecipeSearchQuery.toTsQuery("a & !b | ':*"));
+    }
+
+    @Test
+    public void testToTsQueryWithoutWords() {
+        assertNull(RecipeSearchQuery.toTsQuery(null));
+        assertNull(RecipeSearchQuery.toTsQuery(" &| "));
+    }
+}
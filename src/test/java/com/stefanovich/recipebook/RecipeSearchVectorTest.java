@@ -0,0 +1,74 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.service.RecipeService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static com.stefanovich.recipebook.RecipeFixtures.recipe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Refreshes of the search vector by the triggers on the ingredient rows.
+ */
+@SpringBootTest
+@Transactional
+public class RecipeSearchVectorTest {
+    // the updated rows of the current transaction
+    private static final String RECIPE_UPDATES_SQL = "SELECT n_tup_upd FROM pg_stat_xact_user_tables WHERE relname = 'recipe'";
+    private static final String MATCHES_SQL = "SELECT search_vector @@ to_tsquery('simple', ?) FROM recipe WHERE id = ?";
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testQuantityUpdateDoesNotRefreshSearchVector() {
+        RecipeDTO pasta = recipeService.addRecipe(recipe("Pasta", "pasta", "basil"));
+        entityManager.flush();
+        long updates = recipeUpdates();
+
+        jdbcTemplate.update("UPDATE ingredientinrecipe SET quantity = quantity + 1, unit_of_measure = 'kg' WHERE recipe_id = ?",
+                pasta.getId());
+
+        assertEquals(updates, recipeUpdates());
+    }
+
+    @Test
+    public void testIngredientUpdateRefreshesSearchVector() {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        RecipeDTO pasta = recipeService.addRecipe(recipe("Pasta", "pasta", "basil" + suffix));
+        RecipeDTO soup = recipeService.addRecipe(recipe("Soup", "leek" + suffix));
+        entityManager.flush();
+        long updates = recipeUpdates();
+
+        // the basil moves to the soup
+        jdbcTemplate.update("UPDATE ingredientinrecipe SET recipe_id = ? WHERE recipe_id = ? "
+                + "AND ingredient_id = (SELECT id FROM ingredient WHERE name = ?)", soup.getId(), pasta.getId(), "basil" + suffix);
+
+        assertEquals(updates + 2, recipeUpdates());
+        assertFalse(matches(pasta.getId(), "basil" + suffix));
+        assertTrue(matches(soup.getId(), "basil" + suffix));
+    }
+
+    private long recipeUpdates() {
+        return jdbcTemplate.queryForObject(RECIPE_UPDATES_SQL, Long.class);
+    }
+
+    private boolean matches(Integer recipeId, String query) {
+        return jdbcTemplate.queryForObject(MATCHES_SQL, Boolean.class, query, recipeId);
+    }
+}
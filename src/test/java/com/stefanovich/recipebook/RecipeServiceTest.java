@@ -1,10 +1,31 @@
 package com.stefanovich.recipebook;
 
+import com.stefanovich.recipebook.event.RecipeChangedEvent;
+import com.stefanovich.recipebook.exception.InvalidRecipeDeleteRequestException;
+import com.stefanovich.recipebook.exception.RecipeNotFoundException;
+import com.stefanovich.recipebook.exception.RecipeVersionConflictException;
+import com.stefanovich.recipebook.mapper.RecipeMapper;
 import com.stefanovich.recipebook.model.Difficulty;
+import com.stefanovich.recipebook.model.Ingredient;
+import com.stefanovich.recipebook.model.IngredientInRecipe;
+import com.stefanovich.recipebook.model.IngredientMatchMode;
 import com.stefanovich.recipebook.model.Recipe;
+import com.stefanovich.recipebook.model.dto.IngredientDTO;
+import com.stefanovich.recipebook.model.dto.IngredientInRecipeDTO;
 import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.model.dto.RecipeDeleteReport;
+import com.stefanovich.recipebook.model.dto.RecipeDeleteRequest;
+import com.stefanovich.recipebook.model.dto.RecipePage;
 import com.stefanovich.recipebook.repository.RecipeRepository;
+import com.stefanovich.recipebook.service.IngredientResolver;
+import com.stefanovich.recipebook.service.RecipeCursor;
+import com.stefanovich.recipebook.service.RecipeDeleter;
+import com.stefanovich.recipebook.service.RecipeFilterCache;
+import com.stefanovich.recipebook.service.RecipeFilterIndex;
+import com.stefanovich.recipebook.service.RecipePatcher;
 import com.stefanovich.recipebook.service.RecipeService;
+import com.stefanovich.recipebook.service.SecondLevelCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -12,16 +33,23 @@ import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -35,6 +63,12 @@ public class RecipeServiceTest {
     @Mock
     private RecipeRepository recipeRepository;
 
+    @Mock
+    private IngredientResolver ingredientResolver;
+
+    @Spy
+    private RecipeMapper recipeMapper = new RecipeMapper();
+
     @Mock
     private EntityManager entityManager;
 
@@ -44,12 +78,30 @@ public class RecipeServiceTest {
     @Mock
     private CriteriaQuery<Recipe> criteriaQuery;
 
-    @Mock
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private Root<Recipe> root;
 
     @Mock
     private TypedQuery<Recipe> typedQuery;
 
+    @Mock
+    private RecipeFilterIndex recipeFilterIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RecipePatcher recipePatcher;
+
+    @Mock
+    private SecondLevelCache secondLevelCache;
+
+    @Mock
+    private RecipeDeleter recipeDeleter;
+
+    @Spy
+    private RecipeFilterCache recipeFilterCache = new RecipeFilterCache(100, 1 << 20, new SimpleMeterRegistry());
+
     @Test
     public void testAddRecipe() {
         RecipeDTO recipeDTO = new RecipeDTO();
@@ -93,12 +145,14 @@ public class RecipeServiceTest {
         updatedRecipeDTO.setVegetarian(true);
         updatedRecipeDTO.setIngredients(new ArrayList<>());
 
+        // every detail differs from the update
         Recipe recipe = new Recipe();
-        recipe.setName(updatedRecipeDTO.getName());
-        recipe.setInstructions(updatedRecipeDTO.getInstructions());
-        recipe.setServings(updatedRecipeDTO.getServings());
-        recipe.setDifficulty(Difficulty.valueOf(updatedRecipeDTO.getDifficulty()));
-        recipe.setVegetarian(updatedRecipeDTO.isVegetarian());
+        recipe.setName("Recipe");
+        recipe.setInstructions("Instructions");
+        recipe.setPreparationTime(20);
+        recipe.setServings(2);
+        recipe.setDifficulty(Difficulty.EASY);
+        recipe.setVegetarian(false);
 
         when(recipeRepository.findById(any(Long.class))).thenReturn(Optional.of(recipe));
         when(recipeRepository.save(any(Recipe.class))).thenReturn(recipe);
@@ -114,18 +168,81 @@ public class RecipeServiceTest {
     }
 
     @Test
-    public void testGetAllRecipes() {
+    public void testUpdateRecipeIngredientsDiff() {
+        Recipe recipe = new Recipe();
+        recipe.setName("Test");
+        recipe.setDifficulty(Difficulty.HARD);
+        IngredientInRecipe salmon = ingredientInRecipe(recipe, 1, "salmon", 200);
+        IngredientInRecipe potatoes = ingredientInRecipe(recipe, 2, "potatoes", 500);
+        recipe.getIngredients().addAll(List.of(salmon, potatoes));
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+        Ingredient leek = new Ingredient();
+        leek.setId(3);
+        leek.setName("leek");
+        when(ingredientResolver.resolve(List.of("Leek"))).thenReturn(Map.of("leek", leek));
+
+        RecipeDTO updatedRecipeDTO = new RecipeDTO();
+        updatedRecipeDTO.setName("Test");
+        updatedRecipeDTO.setInstructions("Test");
+        updatedRecipeDTO.setDifficulty("HARD");
+        updatedRecipeDTO.setIngredients(List.of(ingredientInRecipeDTO("Salmon", 250), ingredientInRecipeDTO("Leek", 100)));
+
+        recipeService.updateRecipe(1L, updatedRecipeDTO);
+
+        assertEquals(2, recipe.getIngredients().size());
+        assertSame(salmon, recipe.getIngredients().get(0));
+        assertEquals(250, salmon.getQuantity());
+        assertEquals(leek, recipe.getIngredients().get(1).getIngredient());
+        assertEquals(100, recipe.getIngredients().get(1).getQuantity());
+    }
+
+    @Test
+    public void testUpdateRecipeWithStaleVersion() {
+        Recipe recipe = new Recipe();
+        recipe.setVersion(3);
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+
+        assertThrows(RecipeVersionConflictException.class, () -> recipeService.updateRecipe(1L, new RecipeDTO(), 2));
+        verify(recipeRepository, never()).save(any());
+    }
+
+    @Test
+    public void testGetRecipesPage() {
         Recipe recipe1 = new Recipe();
+        recipe1.setId(1);
         recipe1.setName("Recipe 1");
         Recipe recipe2 = new Recipe();
+        recipe2.setId(2);
         recipe2.setName("Recipe 2");
-        when(recipeRepository.findAll()).thenReturn(Arrays.asList(recipe1, recipe2));
+        when(recipeRepository.findPageWithIngredients(0, 51)).thenReturn(Arrays.asList(recipe1, recipe2));
 
-        List<RecipeDTO> result = recipeService.getAllRecipes();
+        RecipePage result = recipeService.getRecipesPage(null, null);
 
-        assertEquals(2, result.size());
-        assertEquals("Recipe 1", result.get(0).getName());
-        assertEquals("Recipe 2", result.get(1).getName());
+        assertEquals(2, result.getItems().size());
+        assertEquals("Recipe 1", result.getItems().get(0).getName());
+        assertEquals("Recipe 2", result.getItems().get(1).getName());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    public void testGetRecipesPageWithNextPage() {
+        Recipe recipe1 = new Recipe();
+        recipe1.setId(1);
+        Recipe recipe2 = new Recipe();
+        recipe2.setId(2);
+        when(recipeRepository.findPageWithIngredients(0, 2)).thenReturn(Arrays.asList(recipe1, recipe2));
+
+        RecipePage result = recipeService.getRecipesPage(null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(RecipeCursor.encode(1), result.getNext());
+
+        when(recipeRepository.findPageWithIngredients(1, 2)).thenReturn(List.of(recipe2));
+
+        RecipePage nextPage = recipeService.getRecipesPage(result.getNext(), 1);
+
+        assertEquals(2, nextPage.getItems().get(0).getId());
+        assertNull(nextPage.getNext());
     }
 
     @Test
@@ -140,7 +257,7 @@ public class RecipeServiceTest {
         recipe.setName("Test Recipe");
         when(typedQuery.getResultList()).thenReturn(List.of(recipe));
 
-        List<Recipe> result = recipeService.filterRecipes(null, null, null, null, null);
+        List<Recipe> result = recipeService.filterRecipes(null, null, null, null, null, null);
 
         assertEquals(1, result.size());
         assertEquals("Test Recipe", result.get(0).getName());
@@ -159,30 +276,85 @@ public class RecipeServiceTest {
         recipe.setVegetarian(true);
         when(typedQuery.getResultList()).thenReturn(List.of(recipe));
 
-        List<Recipe> result = recipeService.filterRecipes(true, null, null, null, null);
+        List<Recipe> result = recipeService.filterRecipes(true, null, null, null, null, null);
 
         assertEquals(1, result.size());
         assertTrue(result.get(0).isVegetarian());
     }
 
     @Test
-    public void testDeleteRecipe() {
-        Long recipeId = 1L;
+    public void testFilterRecipesWithFilterIndex() {
         Recipe recipe = new Recipe();
-        recipe.setName("Test Recipe");
-        recipe.setInstructions("Test Instructions");
-        recipe.setPreparationTime(30);
-        recipe.setServings(4);
-        recipe.setDifficulty(Difficulty.MEDIUM);
-        recipe.setVegetarian(false);
+        recipe.setId(2);
+        recipe.setName("Test");
+        recipe.setVegetarian(true);
+        when(recipeFilterIndex.isReady()).thenReturn(true);
+        when(recipeFilterIndex.filter(true, null, null, List.of("salmon"), IngredientMatchMode.ANY, List.of())).thenReturn(new int[]{2});
+        when(recipeRepository.findAllWithIngredientsByIdIn(List.of(2))).thenReturn(List.of(recipe));
+
+        List<Recipe> result = recipeService.filterRecipes(true, null, List.of("salmon"), IngredientMatchMode.ANY, null, null);
+
+        assertEquals(List.of(recipe), result);
+        verify(entityManager, never()).getCriteriaBuilder();
+    }
+
+    @Test
+    public void testDeleteRecipe() {
+        when(recipeDeleter.delete(List.of(1))).thenReturn(new RecipeDeleter.Result(List.of(1), 2));
 
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        recipeService.deleteRecipe(1L);
+
+        verify(recipeRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(RecipeChangedEvent.deleted(1));
+    }
 
-        recipeService.deleteRecipe(recipeId);
+    @Test
+    public void testDeleteMissingRecipe() {
+        when(recipeDeleter.delete(List.of(1))).thenReturn(new RecipeDeleter.Result(List.of(), 0));
 
-        verify(recipeRepository, times(1)).delete(recipe);
+        assertThrows(RecipeNotFoundException.class, () -> recipeService.deleteRecipe(1L));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
+    @Test
+    public void testDeleteRecipesByIds() {
+        when(recipeDeleter.delete(List.of(1, 2, 3))).thenReturn(new RecipeDeleter.Result(List.of(1, 3), 5));
+
+        RecipeDeleteReport report = recipeService.deleteRecipes(new RecipeDeleteRequest(List.of(1, 2, 3), null));
 
-}
+        assertEquals(2, report.getRecipes());
+        assertEquals(5, report.getIngredientRows());
+        verify(eventPublisher).publishEvent(RecipeChangedEvent.deleted(1));
+        verify(eventPublisher).publishEvent(RecipeChangedEvent.deleted(3));
+    }
+
+    @Test
+    public void testDeleteRecipesRequiresCriteria() {
+        assertThrows(InvalidRecipeDeleteRequestException.class,
+                () -> recipeService.deleteRecipes(new RecipeDeleteRequest(null, null)));
+        assertThrows(InvalidRecipeDeleteRequestException.class,
+                () -> recipeService.deleteRecipes(new RecipeDeleteRequest(List.of(1), new RecipeDeleteRequest.Filter())));
+        assertThrows(InvalidRecipeDeleteRequestException.class,
+                () -> recipeService.deleteRecipes(new RecipeDeleteRequest(null, new RecipeDeleteRequest.Filter())));
+        verify(recipeDeleter, never()).delete(any());
+    }
 
+    private static IngredientInRecipe ingredientInRecipe(Recipe recipe, int ingredientId, String name, double quantity) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(ingredientId);
+        ingredient.setName(name);
+        IngredientInRecipe ingredientInRecipe = new IngredientInRecipe();
+        ingredientInRecipe.setIngredient(ingredient);
+        ingredientInRecipe.setRecipe(recipe);
+        ingredientInRecipe.setQuantity(quantity);
+        return ingredientInRecipe;
+    }
+
+    private static IngredientInRecipeDTO ingredientInRecipeDTO(String name, double quantity) {
+        IngredientInRecipeDTO ingredientInRecipeDTO = new IngredientInRecipeDTO();
+        ingredientInRecipeDTO.setIngredient(new IngredientDTO(null, name));
+        ingredientInRecipeDTO.setQuantity(quantity);
+        ingredientInRecipeDTO.setUnitOfMeasure("g");
+        return ingredientInRecipeDTO;
+    }
+}
@@ -0,0 +1,102 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.configuration.ReadYourWrites;
+import com.stefanovich.recipebook.configuration.ReadYourWritesFilter;
+import com.stefanovich.recipebook.configuration.ReplicaRoutingDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        dataSource = new ReplicaRoutingDataSource(primary, replica, Duration.ofSeconds(5), Duration.ofHours(1));
+        // the lag query fails on the mocked replica, so it starts out unusable
+        dataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.destroy();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseReplica() throws SQLException {
+        assertFalse(dataSource.isReplicaUsable());
+        dataSource.recordLag(Duration.ZERO);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void testLaggingReplicaIsNotRead() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        dataSource.recordLag(Duration.ofSeconds(10));
+        assertSame(primaryConnection, dataSource.getConnection());
+        dataSource.recordLag(Duration.ofSeconds(5));
+        assertSame(replicaConnection, dataSource.getConnection());
+        dataSource.recordLag(null);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void testRecentWriterReadsFromPrimary() throws Exception {
+        dataSource.recordLag(Duration.ZERO);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/recipes"), writeResponse,
+                (request, response) -> assertTrue(ReadYourWrites.isPrimaryRequired()));
+        Cookie cookie = writeResponse.getCookies()[0];
+        assertEquals(5, cookie.getMaxAge());
+
+        MockHttpServletRequest stickyRead = new MockHttpServletRequest("GET", "/api/recipes");
+        stickyRead.setCookies(cookie);
+        assertSame(primaryConnection, connectionDuring(filter, stickyRead));
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+
+        assertSame(replicaConnection, connectionDuring(filter, new MockHttpServletRequest("GET", "/api/recipes")));
+    }
+
+    private Connection connectionDuring(ReadYourWritesFilter filter, MockHttpServletRequest request) throws Exception {
+        AtomicReference<Connection> connection = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (filteredRequest, response) -> {
+            try {
+                connection.set(dataSource.getConnection());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return connection.get();
+    }
+}
@@ -0,0 +1,80 @@
+package com.stefanovich.recipebook;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against the two databases of docker-compose: the replica database is not replicated, so a recipe
+ * written only to it tells whether a read was routed to the replica or to the primary.
+ */
+@SpringBootTest(properties = {
+        "recipebook.datasource.replica.enabled=true",
+        "recipebook.datasource.replica.migrate=true"
+})
+@AutoConfigureMockMvc
+public class ReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Value("${recipebook.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${recipebook.datasource.replica.username}")
+    private String replicaUsername;
+
+    @Value("${recipebook.datasource.replica.password}")
+    private String replicaPassword;
+
+    private JdbcTemplate replica;
+    private int recipeId;
+
+    @BeforeEach
+    public void setUp() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, replicaUsername, replicaPassword));
+        // far above the ids the primary hands out, so the recipe only exists on the replica
+        recipeId = Integer.MAX_VALUE - ThreadLocalRandom.current().nextInt(1_000_000);
+        replica.update("INSERT INTO Recipe (id, name, instructions, preparation_time, servings, difficulty, vegetarian) "
+                + "VALUES (?, 'Replica recipe', 'Only on the replica', 10, 2, 'EASY', TRUE)", recipeId);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        replica.update("DELETE FROM Recipe WHERE id = ?", recipeId);
+    }
+
+    @Test
+    public void testReadsGoToReplica() throws Exception {
+        mockMvc.perform(get("/api/v1/recipes/{id}", recipeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica recipe"));
+    }
+
+    @Test
+    public void testCachedFilterResultsAreLoadedFromPrimary() throws Exception {
+        mockMvc.perform(get("/api/v1/recipes/filter").param("searchText", "only on the replica"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + recipeId + ")]").doesNotExist());
+    }
+
+    @Test
+    public void testReadsAfterOwnWriteGoToPrimary() throws Exception {
+        mockMvc.perform(get("/api/v1/recipes/{id}", recipeId).cookie(new Cookie("recipebook-read-primary", "1")))
+                .andExpect(status().isNotFound());
+    }
+}
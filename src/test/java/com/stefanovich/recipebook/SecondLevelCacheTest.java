@@ -0,0 +1,90 @@
+package com.stefanovich.recipebook;
+
+import com.stefanovich.recipebook.model.dto.RecipeDTO;
+import com.stefanovich.recipebook.repository.IngredientRepository;
+import com.stefanovich.recipebook.service.RecipeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.stefanovich.recipebook.RecipeFixtures.recipe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional: entities only reach the second-level cache once their transaction commits.
+ */
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String suffix;
+    private long recipeId;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        suffix = UUID.randomUUID().toString();
+        recipeId = recipeService.addRecipe(recipe("Cached recipe", "salmon-" + suffix, "potatoes-" + suffix)).getId();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recipeService.deleteRecipe(recipeId);
+    }
+
+    @Test
+    public void testCachedRecipeIsReadWithoutStatements() {
+        recipeService.getRecipe(recipeId);
+
+        statistics.clear();
+        RecipeDTO recipeDTO = recipeService.getRecipe(recipeId);
+
+        assertEquals(2, recipeDTO.getIngredients().size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getDomainDataRegionStatistics("recipe-ingredients").getHitCount() > 0);
+    }
+
+    @Test
+    public void testIngredientLookupIsCached() {
+        List<String> names = List.of("salmon-" + suffix, "potatoes-" + suffix);
+        ingredientRepository.findAllByNormalizedNameIn(names);
+
+        statistics.clear();
+        assertEquals(2, ingredientRepository.findAllByNormalizedNameIn(names).size());
+
+        assertEquals(1, statistics.getQueryRegionStatistics("ingredient-by-name").getHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testIngredientChangesEvictCachedRecipe() {
+        recipeService.getRecipe(recipeId);
+
+        RecipeDTO update = recipe("Cached recipe", "leek-" + suffix);
+        recipeService.updateRecipe(recipeId, update);
+        RecipeDTO recipeDTO = recipeService.getRecipe(recipeId);
+
+        assertEquals(List.of("leek-" + suffix), recipeDTO.getIngredients().stream()
+                .map(ingredient -> ingredient.getIngredient().getName())
+                .toList());
+        assertEquals(recipeService.getRecipeVersion(recipeId), recipeDTO.getVersion());
+    }
+}